@@ -0,0 +1,132 @@
+package org.example;
+
+import org.example.model.SceneFile;
+import org.example.model.config.ConfigManager;
+import org.example.view.render.SceneRenderer;
+import org.example.view.render.SceneRenderer.Layer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Renders scene files (see SceneFile) to PNGs without opening a window, e.g.
+//
+//   java -cp ... org.example.BatchRenderer --width 7680 --out figures scenes/*.scene
+//
+// writes figures/<scene>.png for every scene. A scene that fails is reported and skipped; the exit
+// status is 1 if any did, 2 for bad arguments. Settings come from efield.properties and -Defield.*
+// as for the interactive app.
+public class BatchRenderer {
+
+    static final String USAGE = String.join("\n",
+            "usage: BatchRenderer [options] scene...",
+            "  --width N          fit the image inside N pixels wide, keeping the scene's aspect ratio",
+            "  --height N         fit the image inside N pixels high",
+            "  --layers a,b,...   what to draw, from voltage, field-vectors, field-lines, equipotentials, grid,",
+            "                     charges (default: all but grid)",
+            "  --voltage-cell N   voltage map cell size in output pixels (default: the on-screen size)",
+            "  --out DIR          directory for the PNGs (default: the working directory)");
+
+    record Options(int width, int height, Set<Layer> layers, float voltageCell, Path out, List<Path> scenes) {}
+
+    public static void main(String[] args) {
+        // no window, no display needed
+        System.setProperty("java.awt.headless", "true");
+
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        System.exit(run(options) ? 0 : 1);
+    }
+
+    static Options parse(String[] args) {
+        int width = 0, height = 0;
+        float voltageCell = 0;
+        Set<Layer> layers = EnumSet.copyOf(SceneRenderer.DEFAULT_LAYERS);
+        Path out = Path.of(".");
+        List<Path> scenes = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                scenes.add(Path.of(arg));
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(arg + " needs a value");
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--width" -> width = positiveInt(arg, value);
+                case "--height" -> height = positiveInt(arg, value);
+                case "--voltage-cell" -> voltageCell = positiveInt(arg, value);
+                case "--out" -> out = Path.of(value);
+                case "--layers" -> {
+                    layers = EnumSet.noneOf(Layer.class);
+                    for (String id : value.split(",")) {
+                        if (!id.isBlank()) layers.add(Layer.of(id.strip()));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (scenes.isEmpty()) {
+            throw new IllegalArgumentException("No scene files given");
+        }
+        return new Options(width, height, layers, voltageCell, out, scenes);
+    }
+
+    private static int positiveInt(String option, String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n > 0) return n;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(option + " must be a positive whole number, got " + value);
+    }
+
+    // Renders every scene, one after another; each image already uses all cores for its field lines and
+    // voltage map. Returns false if any scene failed.
+    static boolean run(Options options) {
+        // the scene fills the whole image: there is no control panel to keep clear of
+        try (ConfigManager.Scope ignored = ConfigManager.getInstance().override(
+                Map.of("side.panel.width", "0", "side.panel.padding", "0"))) {
+            return renderAll(options);
+        }
+    }
+
+    private static boolean renderAll(Options options) {
+        SceneRenderer renderer = new SceneRenderer(options.width(), options.height(), options.layers(), options.voltageCell());
+        try {
+            Files.createDirectories(options.out());
+        } catch (IOException e) {
+            System.err.println("batch: cannot create " + options.out() + ": " + e.getMessage());
+            return false;
+        }
+        boolean ok = true;
+        for (Path file : options.scenes()) {
+            try {
+                SceneFile scene = SceneFile.read(file);
+                Path png = options.out().resolve(scene.name() + ".png");
+                long start = System.nanoTime();
+                renderer.write(scene, png);
+                System.out.printf("%s -> %s (%d ms)%n", file, png, (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                System.err.println("batch: " + file + " failed: " + e.getMessage());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+}
@@ -35,6 +35,15 @@ public class Main extends PApplet {
         PresetConfigurator.setDipoleConfiguration(simulation);
         // now deselect both charges
         simulation.resetChargeStates();
+
+        // field lines, field vectors and the voltage map are computed off the animation thread
+        simulation.startWorker();
+        // test charges move at a fixed rate however fast frames are drawn
+        simulation.startPhysicsClock();
+
+        // settings from efield.properties are re-read when the file changes
+        ConfigManager.getInstance().addListener(simulation);
+        ConfigManager.getInstance().startWatching();
     }
 
     public void controlEvent(ControlEvent e) {
@@ -47,7 +56,7 @@ public class Main extends PApplet {
     @Override
     public void draw() {
         background(0);
-        simulation.update();   // Update simulation state (positions, forces, etc.)
+        simulation.update();   // Run the physics steps due since the last frame and refresh derived geometry
         simulation.display();  // Draw simulation elements (charges, field lines, etc.)
     }
 
@@ -65,6 +74,9 @@ public class Main extends PApplet {
     @Override
     public void mouseDragged() { inputController.handleMouseDragged(); }
 
+    @Override
+    public void mouseReleased() { inputController.handleMouseReleased(); }
+
     @Override
     public void mouseClicked() {
         if (mouseX < displayWidth - ConfigManager.getInstance().getSidePanelWidth()){
@@ -31,32 +31,20 @@ public class InputController {
         }
         ArrayList<PointCharge> pointCharges = simulation.getPointCharges();
 
-        // Determine if no charge is currently being dragged.
-        boolean noChargeIsBeingDragged = true;
+        // Find the charge that is currently being dragged.
+        PointCharge chargeToMove = null;
         for (PointCharge pointCharge : pointCharges) {
             if (pointCharge.dragging) {
-                noChargeIsBeingDragged = false;
+                chargeToMove = pointCharge;
                 break;
             }
         }
 
-        // If no charge is being dragged, check if the mouse is over any charge.
-        if (noChargeIsBeingDragged) {
-            for (PointCharge pointCharge : pointCharges) {
-                if (mouseIsInsideCharge(mousePos, pointCharge)) {
-                    pointCharge.dragging = true;
-                } else {
-                    pointCharge.dragging = false;
-                }
-            }
-        }
-
-        // Find the first charge that is marked as dragging.
-        PointCharge chargeToMove = null;
-        for (PointCharge pointCharge : pointCharges) {
-            if (pointCharge.dragging) {
-                chargeToMove = pointCharge;
-                break;
+        // If no charge is being dragged, pick up the one under the mouse.
+        if (chargeToMove == null) {
+            chargeToMove = simulation.findChargeAt(mousePos);
+            if (chargeToMove != null) {
+                chargeToMove.dragging = true;
             }
         }
 
@@ -73,11 +61,17 @@ public class InputController {
                 chargeToMove.setPosition(mousePos);
             }
             simulation.voltageDirty = true;
+            simulation.setChargeDragInProgress(true);
             // Clear equipotential lines if a charge is being dragged.
             simulation.clearEquipotentialLines();
         }
     }
 
+    public void handleMouseReleased() {
+        // the voltage map refines back to full resolution once the drag ends
+        simulation.setChargeDragInProgress(false);
+    }
+
     public void handleMouseMoved() {
         if (controlPanel.showFieldVectorsMode()) {
             simulation.showForceVectorsOnMouse();
@@ -87,6 +81,13 @@ public class InputController {
     public void handleKeyPressed() {
         ArrayList<PointCharge> pointCharges = simulation.getPointCharges();
 
+        // F in equipotential mode replaces the lines with the whole evenly spaced family
+        if (controlPanel.showEquipotentialLinesMode() && (parent.key == 'f' || parent.key == 'F')) {
+            simulation.clearEquipotentialLines();
+            simulation.createEquipotentialFamily();
+            return;
+        }
+
         Integer kc = parent.keyCode;  // Get the key code from the parent PApplet
         // Loop over charges and check for a selected one.
         for (int i = 0; i < pointCharges.size(); i++) {
@@ -130,15 +131,8 @@ public class InputController {
             pointCharge.selected = false;
         }
 
-        boolean chargeSelected = false;
-        // Find if the mouse click is inside any charge's circle.
-        for (PointCharge pointCharge : pointCharges) {
-            if (mouseIsInsideCharge(simulation.getMousePosition(), pointCharge)) {
-                pointCharge.selected = true;
-                chargeSelected = true;
-                break;  // Stop after finding the first one.
-            }
-        }
+        // Select the first charge whose circle contains the click.
+        boolean chargeSelected = simulation.selectChargeAtPosition(simulation.getMousePosition());
 
         if (!chargeSelected && !controlPanel.testChargeMode() && !controlPanel.showEquipotentialLinesMode()) {
             // add a point charge on mouse click
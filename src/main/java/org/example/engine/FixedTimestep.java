@@ -0,0 +1,57 @@
+package org.example.engine;
+
+// Accumulator that turns wall-clock time between frames into a whole number of fixed physics steps, so
+// simulated motion depends only on elapsed time, never on the frame rate. Time left over after the last
+// whole step carries into the next frame, and alpha() says how far into the next step the frame is, for
+// drawing between the last two physics states.
+//
+// A frame that falls further behind than maxStepsPerFrame steps runs only that many and drops the rest of
+// the backlog: the simulation then runs slower than real time instead of spending ever longer frames
+// catching up.
+public class FixedTimestep {
+    private final long stepNanos;
+    private final int maxStepsPerFrame;
+
+    private long lastNanos;
+    private long accumulatedNanos;
+    private boolean started;
+
+    public FixedTimestep(double stepsPerSecond, int maxStepsPerFrame) {
+        if (!(stepsPerSecond > 0)) {
+            throw new IllegalArgumentException("Physics step rate must be positive: " + stepsPerSecond);
+        }
+        if (maxStepsPerFrame < 1) {
+            throw new IllegalArgumentException("Physics steps per frame must be at least 1: " + maxStepsPerFrame);
+        }
+        this.stepNanos = Math.max(1L, Math.round(1e9 / stepsPerSecond));
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    // Physics steps due at time nowNanos (System.nanoTime()); the first call only starts the clock.
+    public int advance(long nowNanos) {
+        if (!started) {
+            started = true;
+            lastNanos = nowNanos;
+            return 0;
+        }
+        accumulatedNanos += Math.max(0L, nowNanos - lastNanos);
+        lastNanos = nowNanos;
+
+        long due = accumulatedNanos / stepNanos;
+        if (due > maxStepsPerFrame) {
+            accumulatedNanos = 0;
+            return maxStepsPerFrame;
+        }
+        accumulatedNanos -= due * stepNanos;
+        return (int) due;
+    }
+
+    // Fraction of a step accumulated since the last one, in [0, 1).
+    public float alpha() {
+        return (float) accumulatedNanos / stepNanos;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+}
@@ -16,7 +16,9 @@ public class TestChargeMode implements SimulationMode {
     @Override
     public void update() {
         if (controlPanel.testChargeMode()) {
-            simulation.moveTestCharges();
+            for (int step = simulation.getPhysicsSteps(); step > 0; step--) {
+                simulation.moveTestCharges();
+            }
         }
     }
 
@@ -0,0 +1,131 @@
+package org.example.model;
+
+// Uniform grid over the charges of a ChargeStore, so "which charge is at this point" and "how far is
+// the nearest charge" look at a few cells instead of every charge. Charges are counting-sorted into
+// cells once per store version; within a cell they stay in store order, so lookups return the same
+// charge a scan of the store in order would. The index reads the store's arrays, so it is only valid
+// while the store keeps the version it was built for.
+public class ChargeIndex {
+    // a grid with more cells than this per charge is coarsened, so far-apart charges can't blow up memory
+    private static final int MAX_CELLS_PER_CHARGE = 4;
+
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] qs;
+    private final long version;
+    private final float cellSize;
+    private final float originX;
+    private final float originY;
+    private final int cols;
+    private final int rows;
+    // charges of cell c are cellCharges[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] cellCharges;
+
+    // cellSize: the largest radius most queries use; bigger radii just visit more cells
+    public ChargeIndex(ChargeStore charges, float cellSize) {
+        int n = charges.size();
+        this.xs = charges.getXs();
+        this.ys = charges.getYs();
+        this.qs = charges.getQs();
+        this.version = charges.getVersion();
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        if (n == 0) {
+            minX = minY = maxX = maxY = 0f;
+        }
+
+        float size = cellSize;
+        long maxCells = (long) MAX_CELLS_PER_CHARGE * Math.max(n, 1);
+        while ((long) ((maxX - minX) / size + 1) * (long) ((maxY - minY) / size + 1) > maxCells) {
+            size *= 2;
+        }
+        this.cellSize = size;
+        this.originX = minX;
+        this.originY = minY;
+        this.cols = (int) ((maxX - minX) / size) + 1;
+        this.rows = (int) ((maxY - minY) / size) + 1;
+
+        int[] cellOf = new int[n];
+        cellStart = new int[cols * rows + 1];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = column(xs[i]) + row(ys[i]) * cols;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellCharges = new int[n];
+        int[] fill = new int[cols * rows];
+        for (int i = 0; i < n; i++) {
+            int c = cellOf[i];
+            cellCharges[cellStart[c] + fill[c]++] = i;
+        }
+    }
+
+    // store version this index was built for
+    public long getVersion() {
+        return version;
+    }
+
+    // Lowest-numbered charge strictly closer than radius to (x, y), or -1. chargedOnly skips neutral charges.
+    public int firstWithin(float x, float y, float radius, boolean chargedOnly) {
+        int span = (int) Math.ceil(radius / cellSize);
+        int cx = column(x), cy = row(y);
+        float r2 = radius * radius;
+        int first = -1;
+        for (int row = Math.max(cy - span, 0), lastRow = Math.min(cy + span, rows - 1); row <= lastRow; row++) {
+            for (int col = Math.max(cx - span, 0), lastCol = Math.min(cx + span, cols - 1); col <= lastCol; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellCharges[k];
+                    if (first >= 0 && i > first) break;
+                    if (chargedOnly && qs[i] == 0.0f) continue;
+                    float dx = x - xs[i], dy = y - ys[i];
+                    if (dx * dx + dy * dy < r2) {
+                        first = i;
+                        break;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    // Squared distance from (x, y) to the nearest charged charge, or maxDistance squared if none is closer.
+    public float nearestDistanceSq(float x, float y, float maxDistance) {
+        int span = (int) Math.ceil(maxDistance / cellSize);
+        int cx = column(x), cy = row(y);
+        float best = maxDistance * maxDistance;
+        for (int row = Math.max(cy - span, 0), lastRow = Math.min(cy + span, rows - 1); row <= lastRow; row++) {
+            for (int col = Math.max(cx - span, 0), lastCol = Math.min(cx + span, cols - 1); col <= lastCol; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellCharges[k];
+                    if (qs[i] == 0.0f) continue;
+                    float dx = x - xs[i], dy = y - ys[i];
+                    best = Math.min(best, dx * dx + dy * dy);
+                }
+            }
+        }
+        return best;
+    }
+
+    // points outside the charges' bounding box clamp to the border cells, which is safe because
+    // every query also checks the actual distance
+    private int column(float x) {
+        int col = (int) ((x - originX) / cellSize);
+        return Math.max(0, Math.min(cols - 1, col));
+    }
+
+    private int row(float y) {
+        int row = (int) ((y - originY) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.model;
+
+import processing.core.PVector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Packed copy of the point charges (parallel x / y / q arrays) that all field evaluation reads from.
+// SimulationModel keeps it in sync with the PointCharge objects the UI edits; the version changes
+// whenever a charge is added, removed, moved or re-valued. Versions come from one counter shared by
+// every store, so two stores with the same version hold the same charges: a copy keeps its source's
+// version until either is edited, and caches keyed on the version serve both.
+public class ChargeStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private float[] xs;
+    private float[] ys;
+    private float[] qs;
+    private int count;
+    private long version;
+
+    public ChargeStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public ChargeStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        this.qs = new float[capacity];
+    }
+
+    // Builds a store holding a copy of the given charges.
+    public static ChargeStore of(List<? extends Charge> charges) {
+        ChargeStore store = new ChargeStore(charges.size());
+        store.sync(charges);
+        return store;
+    }
+
+    // Independent copy with the same charges and version, e.g. to hand to another thread.
+    public ChargeStore copy() {
+        ChargeStore copy = new ChargeStore(count);
+        System.arraycopy(xs, 0, copy.xs, 0, count);
+        System.arraycopy(ys, 0, copy.ys, 0, count);
+        System.arraycopy(qs, 0, copy.qs, 0, count);
+        copy.count = count;
+        copy.version = version;
+        return copy;
+    }
+
+    // Copies the charges into the packed arrays; returns true (and bumps the version) if anything changed.
+    public boolean sync(List<? extends Charge> charges) {
+        int n = charges.size();
+        ensureCapacity(n);
+        boolean changed = n != count;
+        for (int i = 0; i < n; i++) {
+            Charge charge = charges.get(i);
+            PVector p = charge.getPosition();
+            float q = charge.getCharge();
+            if (xs[i] != p.x || ys[i] != p.y || qs[i] != q) {
+                xs[i] = p.x;
+                ys[i] = p.y;
+                qs[i] = q;
+                changed = true;
+            }
+        }
+        count = n;
+        if (changed) {
+            version = VERSIONS.incrementAndGet();
+        }
+        return changed;
+    }
+
+    public void add(float x, float y, float q) {
+        ensureCapacity(count + 1);
+        xs[count] = x;
+        ys[count] = y;
+        qs[count] = q;
+        count++;
+        version = VERSIONS.incrementAndGet();
+    }
+
+    public void set(int i, float x, float y, float q) {
+        xs[i] = x;
+        ys[i] = y;
+        qs[i] = q;
+        version = VERSIONS.incrementAndGet();
+    }
+
+    public void clear() {
+        if (count != 0) {
+            count = 0;
+            version = VERSIONS.incrementAndGet();
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (n > xs.length) {
+            int capacity = Math.max(n, xs.length * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            qs = Arrays.copyOf(qs, capacity);
+        }
+    }
+
+    public int size() { return count; }
+    public boolean isEmpty() { return count == 0; }
+    public long getVersion() { return version; }
+
+    // Backing arrays; only the first size() entries are meaningful.
+    public float[] getXs() { return xs; }
+    public float[] getYs() { return ys; }
+    public float[] getQs() { return qs; }
+}
@@ -9,32 +9,78 @@ import java.util.ArrayList;
 
 public class CommonMath {
 
+    // to prevent dividing by 0
+    public static final float MIN_DISTANCE = 0.5f;
+
+    // Slots filled by fieldAtPoint / forceAtPoint
+    public static final int FORCE_X = 0;
+    public static final int FORCE_Y = 1;
+    public static final int VOLTAGE = 2;
+
     // Calculate the net electric force at a given point
     public static PVector netForceAtPoint(PVector pos, ArrayList<PointCharge> pointCharges) {
-        Float minDistance = 0.5f; // to prevent dividing by 0
-
-        PVector netForce = createVector();
-        for (PointCharge pointCharge : pointCharges) {
-            PVector diff = PVector.sub(pointCharge.getPosition(), pos);
-            Float r = diff.mag();
-            if (r < minDistance) r = minDistance;
-            Float forceMag = ConfigManager.getInstance().getCoulombsConstant() * pointCharge.getCharge() / (r * r);
-            diff.normalize();
-            diff.mult(forceMag);
-            netForce.add(diff);
-        }
-        return netForce;
+        float[] out = new float[2];
+        forceAtPoint(pos.x, pos.y, ChargeStore.of(pointCharges), out);
+        return new PVector(out[FORCE_X], out[FORCE_Y]);
     }
 
     public static Float voltageAtPoint(PVector point, ArrayList<PointCharge> pointCharges) {
-        Float voltage = 0.0f;
-        for (PointCharge pointCharge : pointCharges) {
-            Float r = PVector.dist(point, pointCharge.getPosition());
-            if (r < 0.5f) { // avoid division by zero
-                r = 0.5f;
-            }
+        return voltageAtPoint(point.x, point.y, ChargeStore.of(pointCharges));
+    }
+
+    // Net force and voltage at (x, y) written into out[FORCE_X], out[FORCE_Y] and out[VOLTAGE].
+    // Allocation-free: callers keep one scratch array and reuse it.
+    public static void fieldAtPoint(float x, float y, ChargeStore charges, float[] out) {
+        float k = ConfigManager.getInstance().snapshot().coulombsConstant;
+        float[] xs = charges.getXs(), ys = charges.getYs(), qs = charges.getQs();
+        float fx = 0f, fy = 0f, voltage = 0f;
+        for (int i = 0, n = charges.size(); i < n; i++) {
+            float dx = xs[i] - x, dy = ys[i] - y;
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
+            float r = d < MIN_DISTANCE ? MIN_DISTANCE : d;
+            float kq = k * qs[i];
             // V = K * q / r
-            voltage += (ConfigManager.getInstance().getCoulombsConstant() * pointCharge.getCharge() / r);
+            voltage += kq / r;
+            // |F| = K * q / r^2 along the unit vector towards the charge
+            if (d > 0f) {
+                float s = kq / (r * r * d);
+                fx += dx * s;
+                fy += dy * s;
+            }
+        }
+        out[FORCE_X] = fx;
+        out[FORCE_Y] = fy;
+        out[VOLTAGE] = voltage;
+    }
+
+    // Net force at (x, y) written into out[FORCE_X] and out[FORCE_Y].
+    public static void forceAtPoint(float x, float y, ChargeStore charges, float[] out) {
+        float k = ConfigManager.getInstance().snapshot().coulombsConstant;
+        float[] xs = charges.getXs(), ys = charges.getYs(), qs = charges.getQs();
+        float fx = 0f, fy = 0f;
+        for (int i = 0, n = charges.size(); i < n; i++) {
+            float dx = xs[i] - x, dy = ys[i] - y;
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
+            if (d > 0f) {
+                float r = d < MIN_DISTANCE ? MIN_DISTANCE : d;
+                float s = k * qs[i] / (r * r * d);
+                fx += dx * s;
+                fy += dy * s;
+            }
+        }
+        out[FORCE_X] = fx;
+        out[FORCE_Y] = fy;
+    }
+
+    public static float voltageAtPoint(float x, float y, ChargeStore charges) {
+        float k = ConfigManager.getInstance().snapshot().coulombsConstant;
+        float[] xs = charges.getXs(), ys = charges.getYs(), qs = charges.getQs();
+        float voltage = 0f;
+        for (int i = 0, n = charges.size(); i < n; i++) {
+            float dx = xs[i] - x, dy = ys[i] - y;
+            float r = (float) Math.sqrt(dx * dx + dy * dy);
+            if (r < MIN_DISTANCE) r = MIN_DISTANCE;
+            voltage += k * qs[i] / r;
         }
         return voltage;
     }
@@ -45,6 +91,6 @@ public class CommonMath {
 
     // method to check if a point is inside a PointCharge's circle.
     public static boolean mouseIsInsideCharge(PVector point, PointCharge charge) {
-        return PVector.dist(point, charge.getPosition()) < ConfigManager.getInstance().getChargeRadius();
+        return PVector.dist(point, charge.getPosition()) < ConfigManager.getInstance().snapshot().chargeRadius;
     }
 }
@@ -0,0 +1,71 @@
+package org.example.model;
+
+import processing.core.PApplet;
+import processing.core.PShape;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Bakes curveVertex()-style smooth lines into retained PShapes. The Catmull–Rom segments Processing
+// would evaluate every frame (default curveTightness) are sampled once into plain vertices, so the
+// shape can be drawn with app.shape() and, under an OpenGL renderer, stays on the GPU between frames.
+public final class CurveGeometry {
+    // samples per segment between two control points
+    public static final int CURVE_DETAIL = 8;
+
+    private CurveGeometry() {}
+
+    // The polyline beginShape() + curveVertex(p) for every p would draw: the curve runs through the
+    // second to the second-to-last point, the first and last only steer it. Fewer than 4 points draw nothing.
+    public static List<PVector> sample(List<PVector> points) {
+        List<PVector> samples = new ArrayList<>();
+        for (int i = 1; i + 2 < points.size(); i++) {
+            PVector p0 = points.get(i - 1), p1 = points.get(i), p2 = points.get(i + 1), p3 = points.get(i + 2);
+            int first = samples.isEmpty() ? 0 : 1;
+            for (int s = first; s <= CURVE_DETAIL; s++) {
+                float t = (float) s / CURVE_DETAIL;
+                samples.add(new PVector(catmullRom(p0.x, p1.x, p2.x, p3.x, t), catmullRom(p0.y, p1.y, p2.y, p3.y, t)));
+            }
+        }
+        return samples;
+    }
+
+    // Stroked, unfilled shape along the sampled curve. leading: a point joined to the curve's start
+    // with a straight segment, as a vertex() before the curveVertex() calls would be; may be null.
+    public static PShape build(PApplet app, List<PVector> points, PVector leading, int stroke, float weight) {
+        PShape shape = app.createShape();
+        shape.beginShape();
+        shape.noFill();
+        shape.stroke(stroke);
+        shape.strokeWeight(weight);
+        List<PVector> samples = sample(points);
+        if (leading != null && !samples.isEmpty()) {
+            shape.vertex(leading.x, leading.y);
+        }
+        for (PVector p : samples) {
+            shape.vertex(p.x, p.y);
+        }
+        shape.endShape();
+        return shape;
+    }
+
+    // The same line drawn in immediate mode, for one that changes every frame and isn't worth baking.
+    public static void draw(PApplet app, List<PVector> points, int stroke, float weight) {
+        app.pushStyle();
+        app.noFill();
+        app.stroke(stroke);
+        app.strokeWeight(weight);
+        app.beginShape();
+        for (PVector p : points) {
+            app.curveVertex(p.x, p.y);
+        }
+        app.endShape();
+        app.popStyle();
+    }
+
+    private static float catmullRom(float p0, float p1, float p2, float p3, float t) {
+        float t2 = t * t, t3 = t2 * t;
+        return 0.5f * (2 * p1 + (p2 - p0) * t + (2 * p0 - 5 * p1 + 4 * p2 - p3) * t2 + (3 * p1 - p0 - 3 * p2 + p3) * t3);
+    }
+}
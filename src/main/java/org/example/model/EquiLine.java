@@ -1,15 +1,23 @@
 package org.example.model;
 
 import processing.core.PApplet;
+import processing.core.PShape;
 import processing.core.PVector;
 import java.util.ArrayList;
 
 public class EquiLine {
     private ArrayList<PVector> points;
     private Integer strokeColor;
+    // retained geometry of the curve, built by the first display()
+    private PShape shape;
 
     public EquiLine(PApplet app, ArrayList<PVector> points, float voltage) {
         this.points = points;
+        this.strokeColor = strokeColor(app, voltage);
+    }
+
+    // red for positive, blue for negative, white at zero; stronger the further from zero
+    static int strokeColor(PApplet app, float voltage) {
         Float absVoltage = Math.abs(voltage);
         // Map voltage to an intensity (adjust the range as needed)
         Float intensity = app.map(absVoltage, 0, 475, 0, 255);
@@ -22,23 +30,16 @@ public class EquiLine {
             blue = intensity;
         }
         if (voltage == 0) {
-            strokeColor = app.color(255, 255, 255, 255);
-        } else {
-            strokeColor = app.color(red, 0, blue, alpha);
+            return app.color(255, 255, 255, 255);
         }
+        return app.color(red, 0, blue, alpha);
     }
 
-    // Draw the equipotential line
+    // Draw the equipotential line, baking the curve into a retained shape the first time
     public void display(PApplet app) {
-        app.pushMatrix();
-        app.noFill();
-        app.stroke(strokeColor);
-        app.strokeWeight(2);
-        app.beginShape();
-        for (PVector p : points) {
-            app.curveVertex(p.x, p.y);
+        if (shape == null) {
+            shape = CurveGeometry.build(app, points, null, strokeColor, 2);
         }
-        app.endShape();
-        app.popMatrix();
+        app.shape(shape);
     }
 }
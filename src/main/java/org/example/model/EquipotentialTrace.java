@@ -0,0 +1,148 @@
+package org.example.model;
+
+import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import static org.example.model.CommonMath.FORCE_X;
+import static org.example.model.CommonMath.FORCE_Y;
+
+// One equipotential traced off the animation thread: from the clicked point, one side steps along the
+// force rotated by +90 degrees and the other by -90 degrees until they meet or equi.lines.limit steps
+// have been taken. It works on its own copy of the charges, so the scene can change while it runs;
+// SimulationModel cancels it when that happens. Both sides can be copied at any time to draw the line
+// as it grows.
+public class EquipotentialTrace {
+    // force evaluations per step of each side
+    private static final int SUBSTEPS = 100;
+
+    private final ChargeStore charges;
+    private final FieldEvaluator evaluator;
+    private final PVector origin;
+    private final float voltage;
+    private final FutureTask<Void> task = new FutureTask<>(this::trace, null);
+
+    // guarded by this; the tracing thread appends, the animation thread copies
+    private final ArrayList<PVector> leftPoints = new ArrayList<>();
+    private final ArrayList<PVector> rightPoints = new ArrayList<>();
+
+    // scratch slots for the tracing thread
+    private final float[] force = new float[2];
+
+    // charges: a copy the caller won't modify while the trace runs
+    public EquipotentialTrace(ChargeStore charges, FieldEvaluator evaluator, PVector origin) {
+        this.charges = charges;
+        this.evaluator = evaluator;
+        this.origin = origin.copy();
+        this.voltage = evaluator.voltageAt(charges, origin.x, origin.y);
+    }
+
+    // Starts tracing on the executor; the future completes when both sides are finished.
+    public Future<Void> start(Executor executor) {
+        executor.execute(task);
+        return task;
+    }
+
+    public Future<Void> getFuture() {
+        return task;
+    }
+
+    // charge-store version the line is traced for
+    public long getVersion() {
+        return charges.getVersion();
+    }
+
+    public float getVoltage() {
+        return voltage;
+    }
+
+    public synchronized ArrayList<PVector> copyLeftPoints() {
+        return new ArrayList<>(leftPoints);
+    }
+
+    public synchronized ArrayList<PVector> copyRightPoints() {
+        return new ArrayList<>(rightPoints);
+    }
+
+    // Appends the points traced since left and right were last brought up to date, so a copy can follow
+    // the trace without copying it whole every frame.
+    public synchronized void copyNewPoints(List<PVector> left, List<PVector> right) {
+        left.addAll(leftPoints.subList(left.size(), leftPoints.size()));
+        right.addAll(rightPoints.subList(right.size(), rightPoints.size()));
+    }
+
+    private void trace() {
+        synchronized (this) {
+            leftPoints.add(origin.copy());
+            leftPoints.add(origin.copy());
+            rightPoints.add(origin.copy());
+            rightPoints.add(origin.copy());
+        }
+
+        float accuracy = ConfigManager.getInstance().getEquiLinesAccuracy();
+        int limit = ConfigManager.getInstance().getEquiLinesLimit();
+        float leftX = origin.x, leftY = origin.y, rightX = origin.x, rightY = origin.y;
+        for (int loop = 0; ; loop++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            for (int i = 0; i < SUBSTEPS; i++) {
+                // step along the force rotated by +90 degrees
+                evaluator.forceAt(charges, leftX, leftY, force);
+                float s = stepScale(accuracy);
+                leftX += -force[FORCE_Y] * s;
+                leftY += force[FORCE_X] * s;
+            }
+            for (int i = 0; i < SUBSTEPS; i++) {
+                // and the other way round
+                evaluator.forceAt(charges, rightX, rightY, force);
+                float s = stepScale(accuracy);
+                rightX += force[FORCE_Y] * s;
+                rightY += -force[FORCE_X] * s;
+            }
+            synchronized (this) {
+                leftPoints.add(new PVector(leftX, leftY));
+                rightPoints.add(new PVector(rightX, rightY));
+            }
+
+            // After a few loops, check whether the two sides have met.
+            if (loop > 10 && leftPoints.size() >= 5 && sidesMet()) {
+                break;
+            }
+            if (loop >= limit) {
+                break;
+            }
+        }
+
+        synchronized (this) {
+            float distanceBetweenLines = PVector.dist(leftPoints.getLast(), rightPoints.getLast());
+            if (distanceBetweenLines < 10) {
+                leftPoints.add(rightPoints.getLast().copy());
+                rightPoints.add(leftPoints.getLast().copy());
+            }
+        }
+    }
+
+    private boolean sidesMet() {
+        PVector pointToCheck = leftPoints.get(leftPoints.size() - 5);
+        for (PVector p : rightPoints) {
+            if (PVector.dist(pointToCheck, p) < 20) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Scale that turns the force in the scratch slots into a step of the given length.
+    private float stepScale(float length) {
+        float mag = (float) Math.sqrt(force[FORCE_X] * force[FORCE_X] + force[FORCE_Y] * force[FORCE_Y]);
+        return mag == 0f ? 0f : length / mag;
+    }
+}
@@ -1,9 +1,13 @@
 package org.example.model;
 
 import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
 import processing.core.PApplet;
+import processing.core.PShape;
 import processing.core.PVector;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.example.model.CommonMath.*;
 
@@ -12,13 +16,52 @@ public class FieldLine {
     private ArrayList<PVector> points;
     private ArrayList<FieldLineArrow> fieldLineArrows;
     private PVector startingPoint;
+    // retained geometry of the curve, built by the first display()
+    private PShape shape;
 
     private final Integer maxLoops;
     private final Float stepSize;
     private final Integer arrowInterval;
+    private final String integrator;
+    private final Float tolerance;
+    private final FieldEvaluator evaluator;
+    private final ChargeIndex index;
+    // read once from the config snapshot rather than per step
+    private final float chargeRadius;
+
+    // scratch slots reused by every force evaluation along this line
+    private final float[] force = new float[2];
+
+    // adaptive steps stay within stepSize / STEP_RANGE .. stepSize * STEP_RANGE
+    private static final double STEP_RANGE = 8.0;
+    // Dormand–Prince tableau; the last row holds the 5th order weights
+    private static final double[][] DP_A = {
+            {},
+            {1.0 / 5},
+            {3.0 / 40, 9.0 / 40},
+            {44.0 / 45, -56.0 / 15, 32.0 / 9},
+            {19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729},
+            {9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656},
+            {35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84}
+    };
+    // 5th minus 4th order weights
+    private static final double[] DP_E = {
+            71.0 / 57600, 0, -71.0 / 16695, 71.0 / 1920, -17253.0 / 339200, 22.0 / 525, -1.0 / 40
+    };
+
+    public FieldLine(PApplet app, PVector startingPoint, ChargeStore pointCharges, FieldLineConfig config, FieldEvaluator evaluator) {
+        this(app, startingPoint, pointCharges, config, evaluator,
+                new ChargeIndex(pointCharges, ConfigManager.getInstance().getChargeDiameter()));
+    }
 
-    public FieldLine(PApplet app, PVector startingPoint, ArrayList<PointCharge> pointCharges, FieldLineConfig config) {
+    // index: built for pointCharges, and shared between lines traced over the same charges
+    public FieldLine(PApplet app, PVector startingPoint, ChargeStore pointCharges, FieldLineConfig config, FieldEvaluator evaluator, ChargeIndex index) {
+        if (index.getVersion() != pointCharges.getVersion()) {
+            throw new IllegalArgumentException("Charge index is out of date for these charges");
+        }
         this.app = app;
+        this.evaluator = evaluator;
+        this.index = index;
         this.startingPoint = startingPoint;
         this.points = new ArrayList<>();
         this.points.add(this.startingPoint);
@@ -27,81 +70,180 @@ public class FieldLine {
         this.maxLoops      = config.getMaxLoops();
         this.stepSize      = config.getStepSize();
         this.arrowInterval = config.getArrowInterval();
-
-        generateFieldLineRecursive(pointCharges, 0);
+        this.integrator    = config.getIntegrator();
+        this.tolerance     = config.getTolerance();
+        this.chargeRadius  = ConfigManager.getInstance().snapshot().chargeRadius;
+
+        if (FieldLineConfig.RK45.equals(integrator)) {
+            generateFieldLineAdaptive(pointCharges);
+        } else {
+            generateFieldLine(pointCharges);
+        }
         placeArrows(pointCharges);
     }
 
-    private void generateFieldLineRecursive(ArrayList<PointCharge> pointCharges, Integer loopCount) {
-        // 1) stop if we’ve done enough loops
-        if (loopCount >= maxLoops) return;
-
-        // 2) compute the next point
+    private void generateFieldLine(ChargeStore pointCharges) {
         PVector current = points.getLast();
-        PVector next    = getNextFieldLinePoint(current, pointCharges, stepSize);
-
-        // 3) check: did this segment land inside any charge?
-        for (PointCharge pointCharge : pointCharges) {
-            if (PVector.dist(next, pointCharge.getPosition()) < ConfigManager.getInstance().getChargeRadius() && pointCharge.getCharge() != 0.0f) {
-                // snap to the center (or just add next) and bail out
-                points.add(pointCharge.getPosition().copy());
-                points.add(pointCharge.getPosition().copy());
+        for (int loop = 0; loop < maxLoops; loop++) {
+            PVector next = getNextFieldLinePoint(current, pointCharges, stepSize);
+
+            // did this segment land inside any charge? snap to its centre and bail out
+            int hit = chargeAt(pointCharges, next.x, next.y);
+            if (hit >= 0) {
+                addChargeCentre(pointCharges, hit);
                 return;
             }
+            points.add(next);
+            current = next;
         }
+    }
+
+    // Dormand–Prince 5(4): the difference between the embedded 4th and 5th order solutions estimates
+    // each step's error, so steps grow in the smooth far field and shrink where lines bend near charges.
+    // Every stage is a unit direction along the line, so a step of h moves about h pixels.
+    private void generateFieldLineAdaptive(ChargeStore pointCharges) {
+        double[] kx = new double[7], ky = new double[7];
+        double x = startingPoint.x, y = startingPoint.y;
+        if (!directionAt(pointCharges, x, y, kx, ky, 0)) return;
+
+        double minStep = stepSize / STEP_RANGE, maxStep = stepSize * STEP_RANGE;
+        double h = stepSize;
+        for (int loop = 0; loop < maxLoops; ) {
+            // never step further than the nearest charge, so a line can't jump over the charge it ends on
+            double nearest = Math.sqrt(index.nearestDistanceSq((float) x, (float) y, (float) maxStep));
+            h = Math.max(minStep, Math.min(h, nearest));
+
+            for (int stage = 1; stage < 7; stage++) {
+                double sx = x, sy = y;
+                for (int j = 0; j < stage; j++) {
+                    sx += h * DP_A[stage][j] * kx[j];
+                    sy += h * DP_A[stage][j] * ky[j];
+                }
+                if (!directionAt(pointCharges, sx, sy, kx, ky, stage)) return;
+            }
 
-        // 4) otherwise, keep going
-        points.add(next);
-        generateFieldLineRecursive(pointCharges, loopCount + 1);
+            double ex = 0, ey = 0;
+            for (int j = 0; j < 7; j++) {
+                ex += DP_E[j] * kx[j];
+                ey += DP_E[j] * ky[j];
+            }
+            double error = h * Math.sqrt(ex * ex + ey * ey);
+            if (error > tolerance && h > minStep) {
+                h *= Math.max(0.2, 0.9 * Math.pow(tolerance / error, 0.2));
+                continue;
+            }
+
+            // the last stage is evaluated at the 5th order solution, so it doubles as the next step's first
+            for (int j = 0; j < 6; j++) {
+                x += h * DP_A[6][j] * kx[j];
+                y += h * DP_A[6][j] * ky[j];
+            }
+            kx[0] = kx[6];
+            ky[0] = ky[6];
+            loop++;
+
+            int hit = chargeAt(pointCharges, (float) x, (float) y);
+            if (hit >= 0) {
+                addChargeCentre(pointCharges, hit);
+                return;
+            }
+            points.add(new PVector((float) x, (float) y));
+            h *= Math.min(5.0, 0.9 * Math.pow(tolerance / Math.max(error, 1e-12), 0.2));
+        }
     }
 
-    private void placeArrows(ArrayList<PointCharge> pointCharges) {
-        for (Integer i = arrowInterval; i < points.size(); i += arrowInterval) {
-            PVector pos = points.get(i);
-            Float dir   = computeDirectionAt(pos, pointCharges);
-            FieldLineArrow arrow = new FieldLineArrow(pos, dir);
-            fieldLineArrows.add(arrow);
+    // unit direction of the line at (x, y) into stage k; false where the field vanishes
+    private boolean directionAt(ChargeStore pointCharges, double x, double y, double[] kx, double[] ky, int k) {
+        evaluator.forceAt(pointCharges, (float) x, (float) y, force);
+        double fx = force[FORCE_X], fy = force[FORCE_Y];
+        double mag = Math.sqrt(fx * fx + fy * fy);
+        if (mag == 0.0 || Double.isNaN(mag)) return false;
+        kx[k] = -fx / mag;
+        ky[k] = -fy / mag;
+        return true;
+    }
+
+    // Index of the charge whose disc contains (x, y), or -1.
+    private int chargeAt(ChargeStore pointCharges, float x, float y) {
+        return index.firstWithin(x, y, chargeRadius, true);
+    }
+
+    private void addChargeCentre(ChargeStore pointCharges, int charge) {
+        float x = pointCharges.getXs()[charge], y = pointCharges.getYs()[charge];
+        points.add(new PVector(x, y));
+        points.add(new PVector(x, y));
+    }
+
+    private void placeArrows(ChargeStore pointCharges) {
+        if (FieldLineConfig.EULER.equals(integrator)) {
+            for (Integer i = arrowInterval; i < points.size(); i += arrowInterval) {
+                addArrow(points.get(i), pointCharges);
+            }
+            return;
+        }
+
+        // adaptive steps vary in length, so space the arrows by distance travelled instead
+        float spacing = arrowInterval * stepSize;
+        float travelled = 0f;
+        for (int i = 1; i < points.size(); i++) {
+            travelled += PVector.dist(points.get(i - 1), points.get(i));
+            if (travelled >= spacing) {
+                addArrow(points.get(i), pointCharges);
+                travelled = 0f;
+            }
         }
     }
 
-    private float computeDirectionAt(PVector pos, ArrayList<PointCharge> pointCharges) {
-        PVector fieldVec = netForceAtPoint(pos, pointCharges).mult(-1);
-        return fieldVec.heading();
+    private void addArrow(PVector pos, ChargeStore pointCharges) {
+        Float dir = computeDirectionAt(pos, pointCharges);
+        fieldLineArrows.add(new FieldLineArrow(pos, dir));
     }
 
-    public PVector getNextFieldLinePoint(PVector currentPoint, ArrayList<PointCharge> pointCharges, float stepSize) {
+    private float computeDirectionAt(PVector pos, ChargeStore pointCharges) {
+        evaluator.forceAt(pointCharges, pos.x, pos.y, force);
+        return (float) Math.atan2(-force[FORCE_Y], -force[FORCE_X]);
+    }
+
+    public PVector getNextFieldLinePoint(PVector currentPoint, ChargeStore pointCharges, float stepSize) {
         // Calculate the net force, scale it, and add it to the current point.
-        PVector netForceAtCurrentPoint = netForceAtPoint(currentPoint, pointCharges);
+        evaluator.forceAt(pointCharges, currentPoint.x, currentPoint.y, force);
+        float fx = force[FORCE_X], fy = force[FORCE_Y];
+        float mag = (float) Math.sqrt(fx * fx + fy * fy);
+        if (mag == 0f) {
+            return currentPoint.copy();
+        }
 
         // if the segment is outside the screen, make it bigger to save computation
-        if (currentPoint.x < (-3 * ConfigManager.getInstance().getChargeRadius()) ||
-            currentPoint.y < (-3 * ConfigManager.getInstance().getChargeRadius()) ||
-            currentPoint.x > (app.width + (-3 * ConfigManager.getInstance().getChargeRadius())) ||
-            currentPoint.y > (app.height + (-3 * ConfigManager.getInstance().getChargeRadius()))) {
-            netForceAtCurrentPoint.setMag(-3 * ConfigManager.getInstance().getChargeRadius());
+        float offscreen = -3 * chargeRadius;
+        float step;
+        if (currentPoint.x < offscreen ||
+            currentPoint.y < offscreen ||
+            currentPoint.x > (app.width + offscreen) ||
+            currentPoint.y > (app.height + offscreen)) {
+            step = offscreen;
         }
         else {
-            netForceAtCurrentPoint.setMag(-stepSize);
+            step = -stepSize;
         }
-        return currentPoint.copy().add(netForceAtCurrentPoint);
+        float s = step / mag;
+        return new PVector(currentPoint.x + fx * s, currentPoint.y + fy * s);
+    }
+
+    public PVector getStartingPoint() {
+        return startingPoint;
+    }
+
+    public List<PVector> getPoints() {
+        return Collections.unmodifiableList(points);
     }
 
-    // Draw the field line as a curve
+    // Draw the field line as a curve. The points never change after tracing, so the curve is baked
+    // into a retained shape on first display (on the animation thread) and just drawn afterwards.
     public void display(PApplet app) {
-        app.pushMatrix();
-        app.noFill();
-        app.stroke(255);
-        app.strokeWeight(3);
-        app.beginShape();
-        // Use the first point with vertex(), then curveVertex() for smooth curves.
-        if (!points.isEmpty()) {
-            app.vertex(points.getFirst().x, points.getFirst().y);
-            for (PVector p : points) {
-                app.curveVertex(p.x, p.y);
-            }
+        if (shape == null) {
+            shape = CurveGeometry.build(app, points, points.getFirst(), app.color(255), 3);
         }
-        app.endShape();
-        app.popMatrix();
+        app.shape(shape);
 
         // display the field line arrows
         for (FieldLineArrow fieldLineArrow : fieldLineArrows) {
@@ -1,8 +1,8 @@
 package org.example.model;
 
-import java.util.ArrayList;
-
 import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.FieldEvaluators;
 import processing.core.PApplet;
 import processing.core.PVector;
 
@@ -10,21 +10,44 @@ import processing.core.PVector;
 public class FieldLineBuilder {
     private final PApplet app;
     private final PVector start;
-    private final ArrayList<PointCharge> pointCharges;
+    private final ChargeStore pointCharges;
 
     private Integer maxLoops = 500;
     private Float stepSize = ConfigManager.getInstance().getChargeRadius();
     private Integer arrowInterval = 5;
+    private FieldEvaluator evaluator = FieldEvaluators.getDefault();
+    private ChargeIndex index;
+    private String integrator = ConfigManager.getInstance().getFieldLinesIntegrator();
+    private Float tolerance = ConfigManager.getInstance().getFieldLinesTolerance();
 
-    public FieldLineBuilder(PApplet app, PVector start, ArrayList<PointCharge> pointCharges) {
+    public FieldLineBuilder(PApplet app, PVector start, ChargeStore pointCharges) {
         this.app     = app;
         this.start   = start;
         this.pointCharges = pointCharges;
     }
 
+    public FieldLineBuilder withEvaluator(FieldEvaluator evaluator) {
+        this.evaluator = evaluator;
+        return this;
+    }
+
+    // share one index between the lines traced over the same charges instead of building one per line
+    public FieldLineBuilder withIndex(ChargeIndex index) {
+        this.index = index;
+        return this;
+    }
+
+    public FieldLineBuilder withIntegrator(String integrator) {
+        this.integrator = integrator;
+        return this;
+    }
+
     public FieldLine build() {
         FieldLineConfig config =
-                new FieldLineConfig(maxLoops, stepSize, arrowInterval);
-        return new FieldLine(app, start, pointCharges, config);
+                new FieldLineConfig(maxLoops, stepSize, arrowInterval, integrator, tolerance);
+        if (index == null) {
+            return new FieldLine(app, start, pointCharges, config, evaluator);
+        }
+        return new FieldLine(app, start, pointCharges, config, evaluator, index);
     }
 }
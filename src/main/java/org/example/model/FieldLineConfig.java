@@ -1,17 +1,39 @@
 package org.example.model;
 
 public class FieldLineConfig {
+    // fixed steps of stepSize, one force evaluation per point
+    public static final String EULER = "euler";
+    // Dormand–Prince 5(4) with step-size control; stepSize is only the first step
+    public static final String RK45 = "rk45";
+
     private final Integer    maxLoops;
     private final Float  stepSize;
     private final Integer    arrowInterval;
+    private final String integrator;
+    private final Float  tolerance;
 
     public FieldLineConfig(Integer maxLoops, Float stepSize, Integer arrowInterval) {
+        this(maxLoops, stepSize, arrowInterval, EULER, 0f);
+    }
+
+    // tolerance: largest local position error in pixels an adaptive step may make
+    public FieldLineConfig(Integer maxLoops, Float stepSize, Integer arrowInterval, String integrator, Float tolerance) {
+        if (!EULER.equals(integrator) && !RK45.equals(integrator)) {
+            throw new IllegalArgumentException("Unknown field line integrator: " + integrator);
+        }
+        if (RK45.equals(integrator) && !(tolerance > 0f)) {
+            throw new IllegalArgumentException("Adaptive field line tolerance must be positive: " + tolerance);
+        }
         this.maxLoops      = maxLoops;
         this.stepSize      = stepSize;
         this.arrowInterval = arrowInterval;
+        this.integrator    = integrator;
+        this.tolerance     = tolerance;
     }
 
     public Integer getMaxLoops() { return maxLoops; }
     public Float getStepSize() { return stepSize; }
     public Integer getArrowInterval() { return arrowInterval; }
-}
\ No newline at end of file
+    public String getIntegrator() { return integrator; }
+    public Float getTolerance() { return tolerance; }
+}
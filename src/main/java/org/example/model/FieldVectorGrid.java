@@ -0,0 +1,149 @@
+package org.example.model;
+
+import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PShape;
+import processing.core.PVector;
+
+import java.util.AbstractList;
+
+import static org.example.model.CommonMath.FORCE_X;
+import static org.example.model.CommonMath.FORCE_Y;
+
+// The field-vector overlay: the scaled force at every grid point that isn't covered by a charge, kept in
+// parallel primitive arrays and computed once per charge configuration. All arrows are drawn from one
+// retained triangle mesh built on first display, instead of a transformed line and triangle per arrow.
+// Reads as a List of FieldVectors for callers that want objects; those are created on demand.
+public class FieldVectorGrid extends AbstractList<FieldVector> {
+    public static final FieldVectorGrid EMPTY = new FieldVectorGrid();
+
+    // arrows shorter than this are not drawn, as in FieldVector.display
+    private static final float MIN_MAGNITUDE = 0.1f;
+    private static final int ARROW_COLOR = 0xFFFFFFFF;
+
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] fxs;
+    private final float[] fys;
+    private final int count;
+
+    // what the grid was computed for
+    private final long version;
+    private final FieldEvaluator evaluator;
+    private final float width;
+    private final float height;
+
+    // all arrows as one mesh, built on the animation thread by the first display()
+    private PShape shape;
+
+    private FieldVectorGrid() {
+        xs = ys = fxs = fys = new float[0];
+        count = 0;
+        version = -1;
+        evaluator = null;
+        width = height = 0f;
+    }
+
+    // Samples the force every grid.size pixels over width x height, skipping points within a charge
+    // diameter of a charge. index must be built for charges.
+    public FieldVectorGrid(ChargeStore charges, FieldEvaluator evaluator, ChargeIndex index, float width, float height) {
+        this.version = charges.getVersion();
+        this.evaluator = evaluator;
+        this.width = width;
+        this.height = height;
+
+        Float gridSize = ConfigManager.getInstance().getGridSize();
+        Integer chargeDiameter = ConfigManager.getInstance().getChargeDiameter();
+        Float fieldVectorScale = ConfigManager.getInstance().getFieldVectorScale();
+        int capacity = ((int) Math.ceil(width / gridSize) + 1) * ((int) Math.ceil(height / gridSize) + 1);
+        float[] xs = new float[capacity], ys = new float[capacity], fxs = new float[capacity], fys = new float[capacity];
+        float[] force = new float[2];
+        int n = 0;
+        for (float y = 0.0f; y < height; y += gridSize) {
+            for (float x = 0.0f; x < width; x += gridSize) {
+                if (index.firstWithin(x, y, chargeDiameter, false) >= 0) {
+                    continue;
+                }
+                evaluator.forceAt(charges, x, y, force);
+                xs[n] = x;
+                ys[n] = y;
+                fxs[n] = force[FORCE_X] / fieldVectorScale;
+                fys[n] = force[FORCE_Y] / fieldVectorScale;
+                n++;
+            }
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.fxs = fxs;
+        this.fys = fys;
+        this.count = n;
+    }
+
+    // true if this grid already shows the given charges, evaluator and canvas size
+    public boolean isFor(ChargeStore charges, FieldEvaluator evaluator, float width, float height) {
+        return version == charges.getVersion() && this.evaluator == evaluator
+                && this.width == width && this.height == height;
+    }
+
+    @Override
+    public FieldVector get(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + count);
+        }
+        return new FieldVector(new PVector(xs[i], ys[i]), new PVector(fxs[i], fys[i]));
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    public void display(PApplet app) {
+        if (count == 0) {
+            return;
+        }
+        if (shape == null) {
+            shape = buildShape(app);
+        }
+        app.shape(shape);
+    }
+
+    // Same geometry FieldVector.display draws: a stem from the grid point to point - force, scale / 2
+    // wide, and a head of length 4 * scale and width 4 * scale at the far end, with scale = |force| / 10.
+    private PShape buildShape(PApplet app) {
+        PShape mesh = app.createShape();
+        mesh.beginShape(PConstants.TRIANGLES);
+        mesh.noStroke();
+        mesh.fill(ARROW_COLOR);
+        for (int i = 0; i < count; i++) {
+            float fx = fxs[i], fy = fys[i];
+            float mag = (float) Math.sqrt(fx * fx + fy * fy);
+            if (mag <= MIN_MAGNITUDE) {
+                continue;
+            }
+            float scale = mag / 10.0f;
+            // unit vector along the arrow (towards -force) and its normal
+            float ux = -fx / mag, uy = -fy / mag;
+            float nx = -uy, ny = ux;
+            float x0 = xs[i], y0 = ys[i];
+            float x1 = x0 - fx, y1 = y0 - fy;
+
+            float half = scale / 4;
+            mesh.vertex(x0 + nx * half, y0 + ny * half);
+            mesh.vertex(x0 - nx * half, y0 - ny * half);
+            mesh.vertex(x1 + nx * half, y1 + ny * half);
+            mesh.vertex(x1 + nx * half, y1 + ny * half);
+            mesh.vertex(x0 - nx * half, y0 - ny * half);
+            mesh.vertex(x1 - nx * half, y1 - ny * half);
+
+            float bx = x1 - 4 * scale * ux, by = y1 - 4 * scale * uy;
+            mesh.vertex(x1, y1);
+            mesh.vertex(bx - 2 * scale * nx, by - 2 * scale * ny);
+            mesh.vertex(bx + 2 * scale * nx, by + 2 * scale * ny);
+        }
+        mesh.endShape();
+        return mesh;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.model;
+
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Contour extraction over a row-major grid of samples (value of cell (x, y) at values[y * cols + x],
+// sampled at (x * cellSize, y * cellSize)). Every grid square is classified once per level, the crossing
+// on each edge is linearly interpolated, and the per-square segments are chained through the edges they
+// share into polylines, so all contours of a level come out of a single pass over the grid.
+public final class MarchingSquares {
+
+    // One connected contour. Closed contours repeat their first point at the end.
+    public record Contour(float level, ArrayList<PVector> points, boolean closed) {}
+
+    private MarchingSquares() {}
+
+    public static List<Contour> extract(float[] values, int cols, int rows, float cellSize, float... levels) {
+        List<Contour> contours = new ArrayList<>();
+        if (cols < 2 || rows < 2) {
+            return contours;
+        }
+        Edges edges = new Edges(cols, rows);
+        for (float level : levels) {
+            edges.reset();
+            for (int y = 0; y < rows - 1; y++) {
+                for (int x = 0; x < cols - 1; x++) {
+                    addSegments(values, cols, x, y, level, edges);
+                }
+            }
+            chain(values, cols, cellSize, level, edges, contours);
+        }
+        return contours;
+    }
+
+    // Corners count as inside when they are at or above the level; crossings sit on edges whose ends differ.
+    private static void addSegments(float[] values, int cols, int x, int y, float level, Edges edges) {
+        float v00 = values[y * cols + x], v10 = values[y * cols + x + 1];
+        float v01 = values[(y + 1) * cols + x], v11 = values[(y + 1) * cols + x + 1];
+        int square = (v00 >= level ? 1 : 0) | (v10 >= level ? 2 : 0) | (v11 >= level ? 4 : 0) | (v01 >= level ? 8 : 0);
+        if (square == 0 || square == 15) {
+            return;
+        }
+
+        int top = edges.horizontal(x, y), bottom = edges.horizontal(x, y + 1);
+        int left = edges.vertical(x, y), right = edges.vertical(x + 1, y);
+        switch (square) {
+            case 1, 14 -> edges.link(left, top);
+            case 2, 13 -> edges.link(top, right);
+            case 3, 12 -> edges.link(left, right);
+            case 4, 11 -> edges.link(right, bottom);
+            case 6, 9 -> edges.link(top, bottom);
+            case 7, 8 -> edges.link(left, bottom);
+            case 5, 10 -> {
+                // saddle: the average of the corners decides whether the two inside corners connect
+                boolean centreInside = (v00 + v10 + v11 + v01) / 4 >= level;
+                if ((square == 5) == centreInside) {
+                    edges.link(left, bottom);
+                    edges.link(top, right);
+                } else {
+                    edges.link(left, top);
+                    edges.link(right, bottom);
+                }
+            }
+            default -> { }
+        }
+    }
+
+    // Walks the edge graph: open contours start at edges with one neighbour (the grid border), whatever
+    // is left afterwards are closed loops.
+    private static void chain(float[] values, int cols, float cellSize, float level, Edges edges, List<Contour> contours) {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int start = 0; start < edges.count; start++) {
+                boolean open = edges.degree(start) == 1;
+                if (edges.visited[start] || edges.degree(start) == 0 || (pass == 0 && !open)) {
+                    continue;
+                }
+                ArrayList<PVector> points = new ArrayList<>();
+                int previous = -1, edge = start;
+                while (edge >= 0 && !edges.visited[edge]) {
+                    edges.visited[edge] = true;
+                    points.add(edges.crossing(edge, values, cols, cellSize, level));
+                    int next = edges.first[edge] != previous ? edges.first[edge] : edges.second[edge];
+                    previous = edge;
+                    edge = next;
+                }
+                boolean closed = edge == start;
+                if (closed) {
+                    points.add(points.getFirst().copy());
+                }
+                contours.add(new Contour(level, points, closed));
+            }
+        }
+    }
+
+    // Grid edges numbered horizontal first (between (x, y) and (x + 1, y)), then vertical (between
+    // (x, y) and (x, y + 1)); each crossed edge is shared by at most two squares, so two neighbours suffice.
+    private static final class Edges {
+        final int cols;
+        final int horizontalCount;
+        final int count;
+        final int[] first;
+        final int[] second;
+        final boolean[] visited;
+
+        Edges(int cols, int rows) {
+            this.cols = cols;
+            this.horizontalCount = (cols - 1) * rows;
+            this.count = horizontalCount + cols * (rows - 1);
+            this.first = new int[count];
+            this.second = new int[count];
+            this.visited = new boolean[count];
+        }
+
+        void reset() {
+            Arrays.fill(first, -1);
+            Arrays.fill(second, -1);
+            Arrays.fill(visited, false);
+        }
+
+        int horizontal(int x, int y) {
+            return y * (cols - 1) + x;
+        }
+
+        int vertical(int x, int y) {
+            return horizontalCount + y * cols + x;
+        }
+
+        void link(int a, int b) {
+            attach(a, b);
+            attach(b, a);
+        }
+
+        private void attach(int edge, int neighbour) {
+            if (first[edge] < 0) first[edge] = neighbour;
+            else second[edge] = neighbour;
+        }
+
+        int degree(int edge) {
+            return (first[edge] >= 0 ? 1 : 0) + (second[edge] >= 0 ? 1 : 0);
+        }
+
+        PVector crossing(int edge, float[] values, int cols, float cellSize, float level) {
+            int x0, y0, x1, y1;
+            if (edge < horizontalCount) {
+                x0 = edge % (cols - 1);
+                y0 = edge / (cols - 1);
+                x1 = x0 + 1;
+                y1 = y0;
+            } else {
+                x0 = (edge - horizontalCount) % cols;
+                y0 = (edge - horizontalCount) / cols;
+                x1 = x0;
+                y1 = y0 + 1;
+            }
+            float a = values[y0 * cols + x0], b = values[y1 * cols + x1];
+            float t = a == b ? 0.5f : (level - a) / (b - a);
+            return new PVector((x0 + t * (x1 - x0)) * cellSize, (y0 + t * (y1 - y0)) * cellSize);
+        }
+    }
+}
@@ -117,10 +117,11 @@ public class PresetConfigurator {
         Integer rows = (int) (simulation.getHeight() / GRID_SIZE);
 
         // Fill the array with a single color (e.g., blue)
-        for (Integer x = 0; x < cols; x+=TEST_CHARGE_MAP_STEP) {
-            for (Integer y = 0; y < rows; y+=TEST_CHARGE_MAP_STEP) {
-                PVector pos = new PVector(x * GRID_SIZE, y * GRID_SIZE);
-                simulation.addTestCharge(pos);
+        simulation.reserveTestCharges(((cols + TEST_CHARGE_MAP_STEP - 1) / TEST_CHARGE_MAP_STEP)
+                * ((rows + TEST_CHARGE_MAP_STEP - 1) / TEST_CHARGE_MAP_STEP));
+        for (int x = 0; x < cols; x += TEST_CHARGE_MAP_STEP) {
+            for (int y = 0; y < rows; y += TEST_CHARGE_MAP_STEP) {
+                simulation.addTestCharge(x * GRID_SIZE, y * GRID_SIZE);
             }
         }
     }
@@ -0,0 +1,108 @@
+package org.example.model;
+
+import processing.core.PVector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// A scene for offline rendering, read from a small text file with one directive per line; '#' starts a
+// comment.
+//
+//   size 1280 720        canvas the charges are laid out on, in pixels (default 1280 x 720)
+//   preset dipole        one of the control panel's presets, placed before any charges below
+//   charge 400 360 5     a point charge of 5 at (400, 360)
+public record SceneFile(String name, int width, int height, String preset, List<SceneFile.PlacedCharge> charges) {
+    public static final int DEFAULT_WIDTH = 1280;
+    public static final int DEFAULT_HEIGHT = 720;
+
+    public static final Map<String, Consumer<SimulationModel>> PRESETS = Map.of(
+            "single", PresetConfigurator::setSingleConfiguration,
+            "dipole", PresetConfigurator::setDipoleConfiguration,
+            "row", PresetConfigurator::setRowConfiguration,
+            "dipole-row", PresetConfigurator::setDipoleRowConfiguration,
+            "random", PresetConfigurator::setRandomConfiguration
+    );
+
+    public record PlacedCharge(float x, float y, float charge) {}
+
+    // name is the file name without its extension, e.g. "dipole" for scenes/dipole.scene
+    public static SceneFile read(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) name = name.substring(0, dot);
+        return parse(name, Files.readAllLines(file));
+    }
+
+    public static SceneFile parse(String name, List<String> lines) {
+        int width = DEFAULT_WIDTH, height = DEFAULT_HEIGHT;
+        String preset = null;
+        List<PlacedCharge> charges = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.strip();
+            if (line.isEmpty()) continue;
+
+            String[] words = line.split("\\s+");
+            String where = name + ":" + (i + 1) + ": ";
+            switch (words[0]) {
+                case "size" -> {
+                    expectArguments(words, 2, where);
+                    width = (int) number(words[1], where);
+                    height = (int) number(words[2], where);
+                    if (width <= 0 || height <= 0) {
+                        throw new IllegalArgumentException(where + "size must be positive: " + line);
+                    }
+                }
+                case "preset" -> {
+                    expectArguments(words, 1, where);
+                    if (!PRESETS.containsKey(words[1])) {
+                        throw new IllegalArgumentException(where + "unknown preset " + words[1] + ", expected one of " + PRESETS.keySet());
+                    }
+                    preset = words[1];
+                }
+                case "charge" -> {
+                    expectArguments(words, 3, where);
+                    charges.add(new PlacedCharge(number(words[1], where), number(words[2], where), number(words[3], where)));
+                }
+                default -> throw new IllegalArgumentException(where + "unknown directive " + words[0]);
+            }
+        }
+        return new SceneFile(name, width, height, preset, List.copyOf(charges));
+    }
+
+    private static void expectArguments(String[] words, int count, String where) {
+        if (words.length != count + 1) {
+            throw new IllegalArgumentException(where + words[0] + " takes " + count + " argument(s), got " + (words.length - 1));
+        }
+    }
+
+    private static float number(String word, String where) {
+        try {
+            float value = Float.parseFloat(word);
+            if (Float.isFinite(value)) return value;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(where + "not a number: " + word);
+    }
+
+    // Replaces the simulation's charges with this scene's; the simulation should be width x height.
+    public void applyTo(SimulationModel simulation) {
+        simulation.clearEquipotentialLines();
+        simulation.removeAllPointCharges();
+        if (preset != null) {
+            PRESETS.get(preset).accept(simulation);
+        }
+        for (PlacedCharge charge : charges) {
+            simulation.addPointCharge(new PVector(charge.x(), charge.y()), charge.charge());
+        }
+        simulation.resetChargeStates();
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.model;
+
+import org.example.model.field.FieldEvaluator;
+
+// Everything SimulationWorker needs to compute one frame: a private copy of the charges, the evaluator
+// and which derived geometry the active modes asked for. Never modified once submitted. The generations
+// count settings changes that invalidate each kind of geometry; the worker reuses geometry only while its
+// generation stays the same.
+public record SceneSnapshot(ChargeStore charges,
+                            FieldEvaluator evaluator,
+                            boolean fieldLines,
+                            boolean fieldVectors,
+                            boolean voltage,
+                            boolean interactive,
+                            long fieldLinesGeneration,
+                            long fieldVectorsGeneration,
+                            long voltageGeneration) {
+
+    public SceneSnapshot(ChargeStore charges, FieldEvaluator evaluator,
+                         boolean fieldLines, boolean fieldVectors, boolean voltage, boolean interactive) {
+        this(charges, evaluator, fieldLines, fieldVectors, voltage, interactive, 0, 0, 0);
+    }
+
+    // true if a frame computed for other would serve this snapshot as well
+    public boolean sameAs(SceneSnapshot other) {
+        return other != null
+                && charges.getVersion() == other.charges.getVersion()
+                && evaluator == other.evaluator
+                && fieldLines == other.fieldLines
+                && fieldVectors == other.fieldVectors
+                && voltage == other.voltage
+                && interactive == other.interactive
+                && fieldLinesGeneration == other.fieldLinesGeneration
+                && fieldVectorsGeneration == other.fieldVectorsGeneration
+                && voltageGeneration == other.voltageGeneration;
+    }
+}
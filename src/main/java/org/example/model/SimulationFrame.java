@@ -0,0 +1,12 @@
+package org.example.model;
+
+import java.util.ArrayList;
+
+// Derived geometry computed by SimulationWorker for one SceneSnapshot. Published whole and never
+// modified afterwards, so the render thread can read it without locking. Parts the snapshot did not
+// ask for are null.
+public record SimulationFrame(SceneSnapshot snapshot,
+                              ArrayList<FieldLine> fieldLines,
+                              FieldVectorGrid fieldVectors,
+                              int[] voltageColors) {
+}
@@ -1,40 +1,127 @@
 package org.example.model;
 
+import org.example.model.config.ConfigListener;
 import org.example.model.config.ConfigManager;
+import org.example.model.config.ConfigSnapshot;
+import org.example.engine.FixedTimestep;
 import org.example.engine.modes.*;
 import org.example.factories.ChargeFactory;
 import org.example.factories.FieldElementFactory;
 import org.example.factories.ProcessingChargeFactory;
 import org.example.factories.ProcessingFieldElementFactory;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.FieldEvaluators;
+import org.example.model.field.FmmEngine;
 import org.example.view.ui.ControlPanel;
 import org.example.view.ui.ControlPanelListener;
 import processing.core.PApplet;
 import processing.core.PVector;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static org.example.model.CommonMath.*;
 
-public class SimulationModel implements ControlPanelListener {
+public class SimulationModel implements ControlPanelListener, ConfigListener {
+    // settings each kind of cached geometry depends on; changing any of them recomputes it
+    private static final Set<String> FIELD_LINE_SETTINGS = Set.of(
+            "charge.radius", "field.lines.per.coulomb", "field.lines.integrator", "field.lines.tolerance");
+    private static final Set<String> FIELD_VECTOR_SETTINGS = Set.of(
+            "grid.size", "charge.diameter", "field.vector.scale", "coulombs.constant");
+    private static final Set<String> VOLTAGE_SETTINGS = Set.of("coulombs.constant", "fmm.order");
+    // the voltage map's cells are grid.size / 3 wide and stop short of the side panel
+    private static final Set<String> VOLTAGE_MAP_SIZE_SETTINGS = Set.of("grid.size", "side.panel.width", "side.panel.padding");
+    // FieldEvaluators.getDefault() resolves a new evaluator when these change
+    private static final Set<String> EVALUATOR_SETTINGS = Set.of("field.evaluator", "barnes.hut.theta", "barnes.hut.threshold");
+    private static final Set<String> TEST_CHARGE_SETTINGS = Set.of(
+            "test.charges.integrator", "test.charges.timestep", "test.charges.max.substeps", "test.charges.substep.length");
+    private static final Set<String> PHYSICS_SETTINGS = Set.of("physics.steps.per.second", "physics.max.steps.per.frame");
+
     public PApplet parent;
 
+    public static final String MARCHING_SQUARES = "marching-squares";
+
     private final FieldElementFactory fieldElementFactory;
     private final ChargeFactory chargeFactory;
 
     private final List<SimulationMode> modes;
 
     private ArrayList<PointCharge> pointCharges;
+    // packed copy of pointCharges that all field evaluation reads from
+    private final ChargeStore chargeStore = new ChargeStore();
+    // grid over chargeStore for hit tests, rebuilt when its version moves on
+    private ChargeIndex chargeIndex;
+    private FieldEvaluator fieldEvaluator = FieldEvaluators.getDefault();
     private ArrayList<FieldLine> fieldLines;
+    // charge-store version and evaluator fieldLines were traced for; -1 when they need tracing
+    private long fieldLinesVersion = -1;
+    private FieldEvaluator fieldLinesEvaluator;
+    // dedicated pool when field.lines.parallelism asks for a specific thread count
+    private ForkJoinPool fieldLinePool;
     private ArrayList<EquiLine> equiLines;
-    private ArrayList<TestCharge> testCharges;
-    private ArrayList<FieldVector> fieldVectors;
+    // equipotentials still being traced in the background, oldest first
+    private final List<EquipotentialTrace> equiTraces = new ArrayList<>();
+    // the points of each of those drawn so far; they only grow, so each frame copies just the new ones
+    private final Map<EquipotentialTrace, TracePreview> tracePreviews = new HashMap<>();
+    private ExecutorService equiLineExecutor;
+    private final TestChargeSwarm testCharges = new TestChargeSwarm();
+    // dedicated pool when test.charges.parallelism asks for a specific thread count
+    private ForkJoinPool testChargePool;
+    private FieldVectorGrid fieldVectors;
     private VoltageGradient voltageGradient;
+    // voltages contoured by the marching-squares equipotential extractor; kept apart from the voltage
+    // map's grid, which only the worker updates while it runs
+    private VoltageGrid contourGrid;
 
     public ControlPanel controlPanel;
 
     private PVector mousePosition;
     public Boolean voltageDirty = true;
+    // set by the input controller between the first drag event on a charge and the mouse release
+    private boolean chargeDragInProgress = false;
+
+    // When the worker runs, createFieldLines / createFieldVectors / updateVoltageGradient only record
+    // that the active modes want that geometry; update() then hands the worker a snapshot and shows
+    // whatever frame it has finished most recently. Test charges keep moving on the animation thread,
+    // since the UI adds and clears them between frames.
+    private SimulationWorker worker;
+    private SimulationFrame shownFrame;
+    private SceneSnapshot submittedSnapshot;
+    private boolean fieldLinesRequested, fieldVectorsRequested, voltageRequested;
+
+    // Test charges advance in fixed physics steps: update() asks the clock how many came due since the last
+    // frame and display() draws them interpolated by the clock's alpha. Without a clock (tests, tools that
+    // drive the model themselves) every update() is one step and nothing is interpolated.
+    private FixedTimestep physicsClock;
+    private int physicsSteps = 1;
+
+    // Keys reported by onConfigChanged, possibly from the config watcher's thread; update() applies them.
+    // The generations count the changes that invalidated each kind of geometry and travel to the worker
+    // in every SceneSnapshot.
+    private final Queue<String> changedSettings = new ConcurrentLinkedQueue<>();
+    private long fieldLinesGeneration, fieldVectorsGeneration, voltageGeneration;
+
+    // scratch slots for the primitive field kernel in CommonMath
+    private final float[] force = new float[2];
+
+    // batch evaluation of the test-charge forces once charges x test charges is large enough
+    private FmmEngine fmmEngine;
+    private float[] testChargeFx = new float[0], testChargeFy = new float[0];
 
     public SimulationModel(PApplet parent, ControlPanel controlPanel, FieldElementFactory fieldElementFactory, ChargeFactory chargeFactory) {
         this.parent = parent;
@@ -55,8 +142,7 @@ public class SimulationModel implements ControlPanelListener {
 
         this.equiLines = new ArrayList<>();
         this.fieldLines = new ArrayList<>();
-        this.fieldVectors = new ArrayList<>();
-        this.testCharges = new ArrayList<>();
+        this.fieldVectors = FieldVectorGrid.EMPTY;
         this.voltageGradient = new VoltageGradient(this);
     }
 
@@ -66,9 +152,137 @@ public class SimulationModel implements ControlPanelListener {
 
     public void update() {
         mousePosition = new PVector(parent.mouseX, parent.mouseY);
+        applySettingsChanges();
+        if (physicsClock != null) {
+            physicsSteps = physicsClock.advance(System.nanoTime());
+        }
+        getChargeStore();
+        collectEquipotentialTraces();
         for (SimulationMode mode : modes) {
             mode.update();
         }
+        if (worker != null) {
+            submitSnapshot();
+            showFrame(worker.getLatestFrame());
+        }
+    }
+
+    // Runs field-line, field-vector and voltage-map computation on a background thread from now on.
+    public void startWorker() {
+        if (worker == null) {
+            worker = new SimulationWorker(this, new VoltageGrid(voltageGradient.getCols(), voltageGradient.getRows(), voltageGradient.getVoltageFidelity()));
+            worker.start();
+        }
+    }
+
+    // Moves test charges in physics.steps.per.second fixed steps from now on, whatever the frame rate.
+    public void startPhysicsClock() {
+        ConfigManager config = ConfigManager.getInstance();
+        physicsClock = new FixedTimestep(config.getPhysicsStepsPerSecond(), config.getPhysicsMaxStepsPerFrame());
+    }
+
+    // Fixed physics steps to run this frame.
+    public int getPhysicsSteps() {
+        return physicsSteps;
+    }
+
+    public void stopWorker() {
+        if (worker != null) {
+            worker.stop();
+            worker = null;
+            shownFrame = null;
+            submittedSnapshot = null;
+            fieldLinesVersion = -1;
+        }
+    }
+
+    public SimulationWorker getWorker() {
+        return worker;
+    }
+
+    @Override
+    public void onConfigChanged(ConfigSnapshot previous, ConfigSnapshot current, Set<String> changedKeys) {
+        changedSettings.addAll(changedKeys);
+    }
+
+    // Drops only the cached geometry that depends on settings changed since the last frame.
+    private void applySettingsChanges() {
+        Set<String> keys = new HashSet<>();
+        for (String key = changedSettings.poll(); key != null; key = changedSettings.poll()) {
+            keys.add(key);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!Collections.disjoint(keys, FIELD_LINE_SETTINGS)) {
+            fieldLinesVersion = -1;
+            fieldLinesGeneration++;
+        }
+        if (!Collections.disjoint(keys, FIELD_VECTOR_SETTINGS)) {
+            fieldVectors = FieldVectorGrid.EMPTY;
+            fieldVectorsGeneration++;
+        }
+        if (!Collections.disjoint(keys, EVALUATOR_SETTINGS)) {
+            // cached geometry remembers the evaluator it was computed with, so a new one recomputes it
+            setFieldEvaluator(FieldEvaluators.getDefault());
+        }
+        if (!Collections.disjoint(keys, VOLTAGE_MAP_SIZE_SETTINGS)) {
+            resizeVoltageMap();
+        } else if (!Collections.disjoint(keys, VOLTAGE_SETTINGS)) {
+            voltageGradient.invalidate();
+            if (contourGrid != null) contourGrid.invalidate();
+            voltageDirty = true;
+            voltageGeneration++;
+        }
+        if (keys.contains("fmm.order")) {
+            fmmEngine = null;
+        }
+        if (!Collections.disjoint(keys, TEST_CHARGE_SETTINGS)) {
+            try {
+                testCharges.applySettings(ConfigManager.getInstance().snapshot());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Keeping the current test-charge motion: " + e.getMessage());
+            }
+        }
+        if (physicsClock != null && !Collections.disjoint(keys, PHYSICS_SETTINGS)) {
+            startPhysicsClock();
+        }
+    }
+
+    // Lays the voltage map out afresh for the current grid size and side panel. The worker's grid is sized
+    // with it, so a running worker is restarted on one of the new size.
+    private void resizeVoltageMap() {
+        voltageGradient = new VoltageGradient(this);
+        contourGrid = null;
+        if (worker != null) {
+            stopWorker();
+            startWorker();
+        }
+        voltageDirty = true;
+        voltageGeneration++;
+    }
+
+    private void submitSnapshot() {
+        SceneSnapshot snapshot = new SceneSnapshot(chargeStore.copy(), fieldEvaluator,
+                fieldLinesRequested, fieldVectorsRequested, voltageRequested, chargeDragInProgress,
+                fieldLinesGeneration, fieldVectorsGeneration, voltageGeneration);
+        fieldLinesRequested = fieldVectorsRequested = voltageRequested = false;
+        if (!snapshot.sameAs(submittedSnapshot)) {
+            worker.submit(snapshot);
+            submittedSnapshot = snapshot;
+        }
+    }
+
+    private void showFrame(SimulationFrame frame) {
+        if (frame == null || frame == shownFrame) {
+            return;
+        }
+        // a copy of the lines, so the model's own list can be cleared without touching a frame the worker
+        // may reuse; vector grids are never modified
+        if (frame.fieldLines() != null) fieldLines = new ArrayList<>(frame.fieldLines());
+        if (frame.fieldVectors() != null) fieldVectors = frame.fieldVectors();
+        if (frame.voltageColors() != null) voltageGradient.showColors(frame.voltageColors());
+        shownFrame = frame;
     }
 
     public void display() {
@@ -76,7 +290,6 @@ public class SimulationModel implements ControlPanelListener {
             mode.display(parent);
         }
         displayGrid(parent);
-        for (TestCharge testCharge : testCharges) { testCharge.display(parent); }
         for (PointCharge pointCharge : pointCharges) { pointCharge.display(parent); }
         displayFrameRate(parent);
         displaySidePanelBackground(parent);
@@ -90,12 +303,22 @@ public class SimulationModel implements ControlPanelListener {
         for (EquiLine equipotentialLine : equiLines) {
             equipotentialLine.display(parent);
         }
+        // lines still being traced, as far as they have got: drawn in immediate mode, since they change
+        // every frame; the finished line is baked into an EquiLine once, by collectEquipotentialTraces
+        for (EquipotentialTrace trace : equiTraces) {
+            TracePreview preview = tracePreviews.computeIfAbsent(trace,
+                    t -> new TracePreview(EquiLine.strokeColor(parent, t.getVoltage()), new ArrayList<>(), new ArrayList<>()));
+            trace.copyNewPoints(preview.left(), preview.right());
+            CurveGeometry.draw(parent, preview.left(), preview.stroke(), 2);
+            CurveGeometry.draw(parent, preview.right(), preview.stroke(), 2);
+        }
     }
 
+    // Both halves of a trace in flight, as far as they have been drawn.
+    private record TracePreview(int stroke, List<PVector> left, List<PVector> right) {}
+
     public void displayFieldVectors(PApplet app) {
-        for (FieldVector fieldVector : fieldVectors) {
-            fieldVector.display(parent);
-        }
+        fieldVectors.display(parent);
     }
 
     public void displayFieldLines(PApplet app) {
@@ -105,7 +328,11 @@ public class SimulationModel implements ControlPanelListener {
     }
 
     public void updateVoltageGradient() {
-        voltageGradient.updateVoltageGradient(pointCharges);
+        if (worker != null) {
+            voltageRequested = true;
+            return;
+        }
+        voltageGradient.updateVoltageGradient(getChargeStore(), fieldEvaluator, chargeDragInProgress);
     }
 
     public void displayVoltage(PApplet app) {
@@ -158,153 +385,314 @@ public class SimulationModel implements ControlPanelListener {
         return pointCharges;
     }
 
-    public ArrayList<TestCharge> getTestCharges() {
+    // Brings the packed store up to date with the PointCharge objects (cheap when nothing changed)
+    // and returns it. The UI mutates charges in place, so every computation syncs before reading.
+    public ChargeStore getChargeStore() {
+        chargeStore.sync(pointCharges);
+        return chargeStore;
+    }
+
+    // Spatial index over the current charges, in the same order as getPointCharges().
+    public ChargeIndex getChargeIndex() {
+        ChargeStore charges = getChargeStore();
+        if (chargeIndex == null || chargeIndex.getVersion() != charges.getVersion()) {
+            chargeIndex = new ChargeIndex(charges, ConfigManager.getInstance().getChargeDiameter());
+        }
+        return chargeIndex;
+    }
+
+    // The index for charges: the maintained one for our own store, a fresh one for a worker's copy.
+    private ChargeIndex indexFor(ChargeStore charges) {
+        if (charges == chargeStore) {
+            return getChargeIndex();
+        }
+        return new ChargeIndex(charges, ConfigManager.getInstance().getChargeDiameter());
+    }
+
+    // The first point charge whose disc contains pos, or null.
+    public PointCharge findChargeAt(PVector pos) {
+        int i = getChargeIndex().firstWithin(pos.x, pos.y, ConfigManager.getInstance().getChargeRadius(), false);
+        return i < 0 ? null : pointCharges.get(i);
+    }
+
+    public FieldEvaluator getFieldEvaluator() {
+        return fieldEvaluator;
+    }
+
+    public void setFieldEvaluator(FieldEvaluator fieldEvaluator) {
+        this.fieldEvaluator = fieldEvaluator;
+        voltageDirty = true;
+    }
+
+    // The test charges as copies; they don't follow the particles as they move.
+    public List<TestCharge> getTestCharges() {
         return testCharges;
     }
 
     public void clearEquipotentialLines() {
         this.equiLines = new ArrayList<>();
+        cancelEquipotentialTraces();
     }
 
     public void createEquipotentialLine(PVector position) {
-        if (!pointCharges.isEmpty()) {
-            ArrayList<PVector> leftPoints = new ArrayList<PVector>();
-            ArrayList<PVector> rightPoints = new ArrayList<PVector>();
-            // Start the recursion with copies of the origin.
-            getEquiLinePoints(position.copy(), position.copy(), position.copy(), 0, leftPoints, rightPoints);
-        }
-    }
-
-    private void getEquiLinePoints(PVector originPoint, PVector leftPoint, PVector rightPoint, int numberOfLoops, ArrayList<PVector> leftPoints, ArrayList<PVector> rightPoints) {
-        // On first call, initialize arrays if empty.
-        if (leftPoints.isEmpty() || rightPoints.isEmpty()) {
-            leftPoints.add(originPoint.copy());
-            leftPoints.add(originPoint.copy());
-            rightPoints.add(originPoint.copy());
-            rightPoints.add(originPoint.copy());
-            leftPoint = originPoint.copy();
-            rightPoint = originPoint.copy();
-            numberOfLoops = 0;
-        }
-
-        // Update leftPoint by iterating 100 times.
-        for (Integer i = 0; i < 100; i++) {
-            PVector forceVector = netForceAtPoint(leftPoint, pointCharges);
-            forceVector.rotate((float)Math.PI / 2);
-            forceVector.setMag(ConfigManager.getInstance().getEquiLinesAccuracy());
-            leftPoint.add(forceVector);
-        }
-        leftPoints.add(leftPoint.copy());
-
-        // Update rightPoint similarly.
-        for (Integer i = 0; i < 100; i++) {
-            PVector forceVector = netForceAtPoint(rightPoint, pointCharges);
-            forceVector.mult(-1);
-            forceVector.rotate((float)Math.PI / 2);
-            forceVector.setMag(ConfigManager.getInstance().getEquiLinesAccuracy());
-            rightPoint.add(forceVector);
-        }
-        rightPoints.add(rightPoint.copy());
-
-        // After a few loops, check for convergence.
-        if (numberOfLoops > 10 && leftPoints.size() >= 5) {
-            PVector pointToCheck = leftPoints.get(leftPoints.size() - 5);
-            for (PVector p : rightPoints) {
-                if (PVector.dist(pointToCheck, p) < 20) {
-                    numberOfLoops = ConfigManager.getInstance().getEquiLinesLimit();
-                    break;
+        if (MARCHING_SQUARES.equals(ConfigManager.getInstance().getEquiLinesExtractor())) {
+            createContourAt(position);
+            return;
+        }
+        traceEquipotentialLine(position);
+    }
+
+    // Traces the equipotential through position on a background thread. The line is drawn as it grows
+    // and joins equiLines once finished; the trace is cancelled if the charges change first.
+    // Returns null if there are no charges to trace around.
+    public Future<Void> traceEquipotentialLine(PVector position) {
+        ChargeStore charges = getChargeStore();
+        if (charges.isEmpty()) {
+            return null;
+        }
+        if (equiLineExecutor == null) {
+            equiLineExecutor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), task -> {
+                Thread thread = new Thread(task, "equipotential-tracer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        EquipotentialTrace trace = new EquipotentialTrace(charges.copy(), fieldEvaluator, position);
+        equiTraces.add(trace);
+        return trace.start(equiLineExecutor);
+    }
+
+    // Moves finished traces into equiLines and cancels the ones traced for charges that have since changed.
+    private void collectEquipotentialTraces() {
+        long version = chargeStore.getVersion();
+        for (Iterator<EquipotentialTrace> it = equiTraces.iterator(); it.hasNext(); ) {
+            EquipotentialTrace trace = it.next();
+            Future<Void> future = trace.getFuture();
+            if (trace.getVersion() != version) {
+                future.cancel(true);
+                it.remove();
+                tracePreviews.remove(trace);
+            } else if (future.isDone()) {
+                it.remove();
+                tracePreviews.remove(trace);
+                try {
+                    future.get();
+                    equiLines.add(fieldElementFactory.createEquiLine(parent, trace.copyLeftPoints(), trace.getVoltage()));
+                    equiLines.add(fieldElementFactory.createEquiLine(parent, trace.copyRightPoints(), trace.getVoltage()));
+                } catch (CancellationException e) {
+                    // dropped by clearEquipotentialLines
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Equipotential trace failed: " + e.getCause());
                 }
             }
         }
+    }
 
-        if (numberOfLoops < ConfigManager.getInstance().getEquiLinesLimit()) {
-            getEquiLinePoints(originPoint, leftPoint.copy(), rightPoint.copy(), numberOfLoops + 1, leftPoints, rightPoints);
-        } else {
-            float distanceBetweenLines = PVector.dist(leftPoints.get(leftPoints.size() - 1), rightPoints.get(rightPoints.size() - 1));
-            if (distanceBetweenLines < 10) {
-                leftPoints.add(rightPoints.get(rightPoints.size() - 1).copy());
-                rightPoints.add(leftPoints.get(leftPoints.size() - 1).copy());
-            }
-            // Create and store two equipotential lines.
-            Float voltage = voltageAtPoint(leftPoints.get(0), pointCharges);
-            EquiLine leftEquiLine = fieldElementFactory.createEquiLine(parent, leftPoints, voltage);
-            EquiLine rightEquiLine = fieldElementFactory.createEquiLine(parent, rightPoints, voltage);
-            equiLines.add(leftEquiLine);
-            equiLines.add(rightEquiLine);
+    private void cancelEquipotentialTraces() {
+        for (EquipotentialTrace trace : equiTraces) {
+            trace.getFuture().cancel(true);
         }
+        equiTraces.clear();
+        tracePreviews.clear();
     }
 
-    // Computes field vectors at grid points.
-    public void createFieldVectors() {
-        // Clear any existing field vectors.
-        fieldVectors.clear();
-        // Loop through a grid over the canvas (use parent.height and parent.width)
-        for (Float y = 0.0f; y < parent.height; y += ConfigManager.getInstance().getGridSize()) {
-            for (Float x = 0.0f; x < parent.width; x += ConfigManager.getInstance().getGridSize()) {
-                PVector arrowLocation = new PVector(x, y);
-
-                // Check if no charge is near this grid point.
-                Boolean noChargesNearby = true;
-                for (Charge charge : pointCharges) {
-                    if (PVector.dist(arrowLocation, charge.getPosition()) < ConfigManager.getInstance().getChargeDiameter()) {
-                        noChargesNearby = false;
-                        break;
-                    }
+    // The contour of the voltage grid at the clicked point's voltage that passes closest to the click.
+    private void createContourAt(PVector position) {
+        ChargeStore charges = getChargeStore();
+        if (charges.isEmpty()) {
+            return;
+        }
+        float voltage = fieldEvaluator.voltageAt(charges, position.x, position.y);
+        MarchingSquares.Contour closest = null;
+        float closestDistance = Float.MAX_VALUE;
+        for (MarchingSquares.Contour contour : contours(voltage)) {
+            for (PVector p : contour.points()) {
+                float d = PVector.dist(p, position);
+                if (d < closestDistance) {
+                    closestDistance = d;
+                    closest = contour;
                 }
+            }
+        }
+        if (closest != null) {
+            equiLines.add(fieldElementFactory.createEquiLine(parent, curvePoints(closest), voltage));
+        }
+    }
 
-                if (noChargesNearby) {
-                    // Get the net force at this location, then scale it.
-                    PVector forceVector = netForceAtPoint(arrowLocation, pointCharges);
-                    forceVector.div(ConfigManager.getInstance().getFieldVectorScale()); // remove
+    // Equipotentials every equi.lines.spacing volts, equi.lines.family.size levels either side of 0 V,
+    // all contoured from the voltage grid in one pass.
+    public void createEquipotentialFamily() {
+        if (getChargeStore().isEmpty()) {
+            return;
+        }
+        float spacing = ConfigManager.getInstance().getEquiLinesSpacing();
+        int size = ConfigManager.getInstance().getEquiLinesFamilySize();
+        float[] levels = new float[2 * size + 1];
+        for (int k = -size; k <= size; k++) {
+            levels[k + size] = k * spacing;
+        }
+        for (MarchingSquares.Contour contour : contours(levels)) {
+            equiLines.add(fieldElementFactory.createEquiLine(parent, curvePoints(contour), contour.level()));
+        }
+    }
 
-                    // Create a new FieldVector and add it to the list.
-                    fieldVectors.add(fieldElementFactory.createFieldVector(arrowLocation, forceVector));
-                }
-            }
+    private List<MarchingSquares.Contour> contours(float... levels) {
+        if (contourGrid == null) {
+            contourGrid = new VoltageGrid(voltageGradient.getCols(), voltageGradient.getRows(), voltageGradient.getVoltageFidelity());
+        }
+        contourGrid.update(getChargeStore(), fieldEvaluator, false);
+        return MarchingSquares.extract(contourGrid.getVoltages(), contourGrid.getCols(), contourGrid.getRows(),
+                contourGrid.getVoltageFidelity(), levels);
+    }
+
+    // EquiLine draws with curveVertex semantics, where the first and last points only steer the curve:
+    // open contours repeat their ends, closed ones wrap around so the curve joins up.
+    private static ArrayList<PVector> curvePoints(MarchingSquares.Contour contour) {
+        ArrayList<PVector> points = contour.points();
+        ArrayList<PVector> padded = new ArrayList<>(points.size() + 2);
+        if (contour.closed() && points.size() > 2) {
+            padded.add(points.get(points.size() - 2));
+            padded.addAll(points);
+            padded.add(points.get(1));
+        } else {
+            padded.add(points.getFirst());
+            padded.addAll(points);
+            padded.add(points.getLast());
+        }
+        return padded;
+    }
+
+    // Computes field vectors at grid points, only when the charges have changed since the last time.
+    public void createFieldVectors() {
+        if (worker != null) {
+            fieldVectorsRequested = true;
+            return;
+        }
+        ChargeStore charges = getChargeStore();
+        if (!fieldVectors.isFor(charges, fieldEvaluator, parent.width, parent.height)) {
+            fieldVectors = computeFieldVectors(charges, fieldEvaluator);
         }
     }
 
+    // Field vectors for the given charges; safe to call from the worker thread.
+    FieldVectorGrid computeFieldVectors(ChargeStore charges, FieldEvaluator evaluator) {
+        return new FieldVectorGrid(charges, evaluator, indexFor(charges), parent.width, parent.height);
+    }
+
     // Draws an unsaved arrow for the field vector at the mouse position.
     public void showForceVectorsOnMouse() {
-        PVector force = netForceAtPoint(mousePosition, pointCharges);
-        force.div(ConfigManager.getInstance().getFieldVectorScale());
+        fieldEvaluator.forceAt(getChargeStore(), mousePosition.x, mousePosition.y, force);
+        Float fieldVectorScale = ConfigManager.getInstance().getFieldVectorScale();
 
         // check if any charges are near the mouse cursor
-        boolean noChargesNearby = true;
-        for (Charge charge : pointCharges) {
-            if (PVector.dist(mousePosition, charge.getPosition()) < ConfigManager.getInstance().getChargeRadius()) {
-                noChargesNearby = false;
-                break;
-            }
-        }
+        boolean noChargesNearby = findChargeAt(mousePosition) == null;
 
         // only display it if no charges are near the mouse cursor
         if (noChargesNearby) {
-            new FieldVector(mousePosition, force).display(parent);
+            new FieldVector(mousePosition, new PVector(force[FORCE_X] / fieldVectorScale, force[FORCE_Y] / fieldVectorScale)).display(parent);
         }
     }
 
     public void createFieldLines() {
-        // Clear any existing field lines.
-        fieldLines.clear();
-
-        for (PointCharge charge : pointCharges) {
-            if (charge.getCharge() > 0)
+        if (worker != null) {
+            fieldLinesRequested = true;
+            return;
+        }
+        // only re-trace when a charge was added, removed, moved or re-valued
+        ChargeStore charges = getChargeStore();
+        if (charges.getVersion() == fieldLinesVersion && fieldEvaluator == fieldLinesEvaluator) {
+            return;
+        }
+        fieldLines = computeFieldLines(charges, fieldEvaluator);
+        fieldLinesVersion = charges.getVersion();
+        fieldLinesEvaluator = fieldEvaluator;
+    }
+
+    // Field lines starting around every positive charge; safe to call from the worker thread.
+    // Lines are independent, so they are traced concurrently and collected in seed order.
+    ArrayList<FieldLine> computeFieldLines(ChargeStore charges, FieldEvaluator evaluator) {
+        List<PVector> seeds = new ArrayList<>();
+        float[] xs = charges.getXs(), ys = charges.getYs(), qs = charges.getQs();
+        Float radius = ConfigManager.getInstance().getChargeRadius();
+        for (int c = 0, n = charges.size(); c < n; c++) {
+            if (qs[c] > 0)
             {
-                Float radius = ConfigManager.getInstance().getChargeRadius();
-                Integer times = (int)Math.abs(charge.getCharge() * ConfigManager.getInstance().getFieldLinesPerCoulomb());
-                PVector origin = charge.getPosition().copy();
+                Integer times = (int)Math.abs(qs[c] * ConfigManager.getInstance().getFieldLinesPerCoulomb());
+                PVector origin = new PVector(xs[c], ys[c]);
                 PVector point = new PVector(radius, 0);
                 for (Integer a = 0; a < times; a++) {
-                    PVector startingPoint = PVector.add(origin, point);
-
-                    FieldLine line = new FieldLineBuilder(parent, startingPoint, pointCharges).build();
-                    fieldLines.add(line);
-
+                    seeds.add(PVector.add(origin, point));
                     point.rotate((2 * (float)Math.PI) / times);
                 }
             }
         }
+
+        ArrayList<FieldLine> lines = new ArrayList<>(seeds.size());
+        ChargeIndex index = indexFor(charges);
+        ForkJoinPool pool = fieldLinePool();
+        if (pool == null || seeds.size() < 2) {
+            for (PVector seed : seeds) {
+                lines.add(new FieldLineBuilder(parent, seed, charges).withEvaluator(evaluator).withIndex(index).build());
+            }
+            return lines;
+        }
+
+        List<Callable<FieldLine>> tasks = new ArrayList<>(seeds.size());
+        for (PVector seed : seeds) {
+            tasks.add(() -> new FieldLineBuilder(parent, seed, charges).withEvaluator(evaluator).withIndex(index).build());
+        }
+        // invokeAll returns the futures in task order, so the result doesn't depend on scheduling
+        for (Future<FieldLine> traced : pool.invokeAll(tasks)) {
+            try {
+                lines.add(traced.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while tracing field lines", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Field line tracing failed", e.getCause());
+            }
+        }
+        return lines;
+    }
+
+    // Pool for tracing field lines per field.lines.parallelism, or null to trace on the calling thread.
+    private ForkJoinPool fieldLinePool() {
+        int parallelism = ConfigManager.getInstance().getFieldLinesParallelism();
+        synchronized (this) {
+            fieldLinePool = dedicatedPool(fieldLinePool, parallelism);
+            return poolFor(parallelism, fieldLinePool);
+        }
+    }
+
+    // Pool for moving test charges, or null to move them on the animation thread.
+    private ForkJoinPool testChargePool() {
+        int parallelism = ConfigManager.getInstance().getTestChargesParallelism();
+        testChargePool = dedicatedPool(testChargePool, parallelism);
+        return poolFor(parallelism, testChargePool);
+    }
+
+    // 1: no pool, <= 0: the shared fork/join pool, n: the dedicated pool with n threads.
+    private static ForkJoinPool poolFor(int parallelism, ForkJoinPool dedicated) {
+        if (parallelism == 1) {
+            return null;
+        }
+        return parallelism <= 0 ? ForkJoinPool.commonPool() : dedicated;
+    }
+
+    // The current dedicated pool if it has the requested size, a new one if it doesn't (shutting the old
+    // one down), or null when no dedicated pool is needed.
+    private static ForkJoinPool dedicatedPool(ForkJoinPool current, int parallelism) {
+        if (parallelism <= 1) {
+            if (current != null) current.shutdown();
+            return null;
+        }
+        if (current == null || current.getParallelism() != parallelism) {
+            if (current != null) current.shutdown();
+            return new ForkJoinPool(parallelism);
+        }
+        return current;
     }
 
     public void resetChargeStates() {
@@ -315,17 +703,25 @@ public class SimulationModel implements ControlPanelListener {
     }
 
     public boolean selectChargeAtPosition(PVector pos) {
-        for (PointCharge charge : pointCharges) {
-            if (mouseIsInsideCharge(pos, charge)) {
-                charge.selected = true;
-                return true;
-            }
+        PointCharge charge = findChargeAt(pos);
+        if (charge == null) {
+            return false;
         }
-        return false;
+        charge.selected = true;
+        return true;
     }
 
     public void addTestCharge(PVector pos) {
-        testCharges.add(chargeFactory.createTestCharge(pos, ConfigManager.getInstance().getTestChargeCharge()));
+        addTestCharge(pos.x, pos.y);
+    }
+
+    public void addTestCharge(float x, float y) {
+        testCharges.add(x, y, ConfigManager.getInstance().getTestChargeCharge());
+    }
+
+    // Makes room for n more test charges, e.g. before adding a grid of them.
+    public void reserveTestCharges(int n) {
+        testCharges.ensureCapacity(testCharges.size() + n);
     }
 
     public void addPointCharge(PVector pos) {
@@ -335,12 +731,14 @@ public class SimulationModel implements ControlPanelListener {
     public void addPointCharge(PVector pos, Float charge) {
         PointCharge pc = chargeFactory.createPointCharge(pos, charge);
         pointCharges.add(pc);
+        chargeStore.sync(pointCharges);
         pc.select();
         voltageDirty = true;
     }
 
     public void removeAllPointCharges() {
         pointCharges.clear();
+        chargeStore.clear();
         voltageDirty = true;
     }
 
@@ -357,19 +755,40 @@ public class SimulationModel implements ControlPanelListener {
     }
 
     public boolean isVoltageDirty() {
-        return voltageDirty;
+        return voltageDirty || voltageGradient.isRefining();
+    }
+
+    public boolean isChargeDragInProgress() {
+        return chargeDragInProgress;
+    }
+
+    public void setChargeDragInProgress(boolean chargeDragInProgress) {
+        this.chargeDragInProgress = chargeDragInProgress;
     }
 
+    // One fixed physics step of the test charges.
     public void moveTestCharges() {
-        for (TestCharge testCharge : testCharges) {
-            testCharge.move(pointCharges);
+        ChargeStore charges = getChargeStore();
+        int m = testCharges.size();
+        testCharges.rememberPositions();
+        if ((long) charges.size() * m < ConfigManager.getInstance().getFmmThreshold()) {
+            testCharges.move(charges, fieldEvaluator, testChargePool());
+        } else {
+            if (testChargeFx.length < m) {
+                testChargeFx = new float[m];
+                testChargeFy = new float[m];
+            }
+            if (fmmEngine == null) fmmEngine = new FmmEngine();
+            fmmEngine.evaluate(charges, testCharges.getXs(), testCharges.getYs(), m, null, testChargeFx, testChargeFy);
+            testCharges.applyForces(testChargeFx, testChargeFy, charges, fieldEvaluator, testChargePool());
         }
+        // particles more than a window away are not coming back in any useful time
+        float width = parent.width, height = parent.height;
+        testCharges.retainWithin(-width, -height, 2 * width, 2 * height);
     }
 
     public void displayTestCharges(PApplet app) {
-        for (TestCharge testCharge : testCharges) {
-            testCharge.display(app);
-        }
+        testCharges.display(app, physicsClock == null ? 1f : physicsClock.alpha());
     }
 
     @Override
@@ -378,6 +797,7 @@ public class SimulationModel implements ControlPanelListener {
             createFieldLines();
         } else {
             fieldLines.clear();
+            fieldLinesVersion = -1;
         }
     }
 
@@ -388,7 +808,7 @@ public class SimulationModel implements ControlPanelListener {
             createFieldVectors();
         } else {
             // hide them
-            fieldVectors.clear();
+            fieldVectors = FieldVectorGrid.EMPTY;
         }
     }
 
@@ -397,6 +817,7 @@ public class SimulationModel implements ControlPanelListener {
         if (!on) {
             // clear any existing equipotential lines
             equiLines.clear();
+            cancelEquipotentialTraces();
         }
     }
 
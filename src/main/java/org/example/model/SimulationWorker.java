@@ -0,0 +1,121 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Computes field lines, field vectors and voltage-map colours off the animation thread.
+//
+// Three slots keep the render loop from ever waiting on physics: the pending snapshot (the animation
+// thread overwrites it, so a snapshot the worker never got to is dropped rather than queued), the frame
+// the worker is computing, and the latest published frame that display() reads lock-free. Each frame
+// is a fresh immutable object, so publishing one never disturbs a frame still being drawn.
+public class SimulationWorker implements Runnable {
+    private final SimulationModel simulation;
+    // the worker's own voltage grid; only its colours cross over to the render thread, as copies
+    private final VoltageGrid voltageGrid;
+
+    private final AtomicReference<SceneSnapshot> pending = new AtomicReference<>();
+    private final AtomicReference<SimulationFrame> latest = new AtomicReference<>();
+    private volatile boolean running;
+    private Thread thread;
+
+    // last computed frame, to reuse geometry when only the voltage map still has work to do
+    private SimulationFrame previous;
+
+    public SimulationWorker(SimulationModel simulation, VoltageGrid voltageGrid) {
+        this.simulation = simulation;
+        this.voltageGrid = voltageGrid;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "simulation-worker");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Replaces any snapshot the worker hasn't started on yet.
+    public void submit(SceneSnapshot snapshot) {
+        pending.set(snapshot);
+        Thread t = thread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    // Most recently finished frame, or null before the first one.
+    public SimulationFrame getLatestFrame() {
+        return latest.get();
+    }
+
+    @Override
+    public void run() {
+        SceneSnapshot current = null;
+        while (running) {
+            SceneSnapshot next = pending.getAndSet(null);
+            if (next != null) {
+                current = next;
+            } else if (current == null || !(current.voltage() && voltageGrid.isRefining())) {
+                // nothing new, and no drag preview left to refine
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                latest.set(computeFrame(current));
+            } catch (RuntimeException e) {
+                System.err.println("simulation worker: frame failed: " + e);
+                current = null;
+            }
+        }
+    }
+
+    // Computes one frame on the calling thread.
+    SimulationFrame computeFrame(SceneSnapshot snapshot) {
+        boolean sameCharges = previous != null
+                && previous.snapshot().charges().getVersion() == snapshot.charges().getVersion()
+                && previous.snapshot().evaluator() == snapshot.evaluator();
+
+        ArrayList<FieldLine> fieldLines = null;
+        if (snapshot.fieldLines()) {
+            fieldLines = sameCharges && previous.fieldLines() != null
+                    && previous.snapshot().fieldLinesGeneration() == snapshot.fieldLinesGeneration()
+                    ? previous.fieldLines()
+                    : simulation.computeFieldLines(snapshot.charges(), snapshot.evaluator());
+        }
+        FieldVectorGrid fieldVectors = null;
+        if (snapshot.fieldVectors()) {
+            fieldVectors = sameCharges && previous.fieldVectors() != null
+                    && previous.snapshot().fieldVectorsGeneration() == snapshot.fieldVectorsGeneration()
+                    ? previous.fieldVectors()
+                    : simulation.computeFieldVectors(snapshot.charges(), snapshot.evaluator());
+        }
+        int[] voltageColors = null;
+        if (snapshot.voltage()) {
+            if (previous != null && previous.snapshot().voltageGeneration() != snapshot.voltageGeneration()) {
+                voltageGrid.invalidate();
+            }
+            boolean changed = voltageGrid.update(snapshot.charges(), snapshot.evaluator(), snapshot.interactive());
+            voltageColors = !changed && previous != null && previous.voltageColors() != null
+                    ? previous.voltageColors()
+                    : voltageGrid.getColors().clone();
+        }
+
+        previous = new SimulationFrame(snapshot, fieldLines, fieldVectors, voltageColors);
+        return previous;
+    }
+}
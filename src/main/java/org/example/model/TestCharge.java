@@ -1,13 +1,12 @@
 package org.example.model;
 
 import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
 import org.example.view.style.Style;
 import org.example.view.style.StyleFactory;
 import processing.core.PApplet;
 import processing.core.PVector;
 
-import java.util.ArrayList;
-
 import static org.example.model.CommonMath.*;
 
 
@@ -17,6 +16,9 @@ public class TestCharge extends Charge {
     private PVector acceleration;
     private Integer diameter;
 
+    // scratch slots for the force evaluation in move()
+    private final float[] force = new float[2];
+
     private static final Style POS_TC = StyleFactory.getStyle(ConfigManager.getInstance().getPositiveChargeColor(), 0, 1f, true);
     private static final Style NEG_TC = StyleFactory.getStyle(ConfigManager.getInstance().getNegativeChargeColor(), 0, 1f, true);
     private static final Style NEU_TC = StyleFactory.getStyle(ConfigManager.getInstance().getNeutralChargeColor(), 0, 1f, true);
@@ -39,11 +41,17 @@ public class TestCharge extends Charge {
     }
 
     // Update the position based on a given force vector.
-    public void move(ArrayList<PointCharge> pointCharges) {
-        PVector force = netForceAtPoint(position, pointCharges).mult(-1);
-        if (!Float.isInfinite(force.mag())) {
+    public void move(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        evaluator.forceAt(pointCharges, position.x, position.y, force);
+        applyForce(force[FORCE_X], force[FORCE_Y]);
+    }
+
+    // One step under a force computed elsewhere (e.g. a batch evaluation over all test charges).
+    public void applyForce(float forceX, float forceY) {
+        float fx = -forceX, fy = -forceY;
+        if (!Float.isInfinite((float) Math.sqrt(fx * fx + fy * fy))) {
             // a = (qE) and assume mass = 1 for simplicity
-            acceleration = force.copy().mult(charge);
+            acceleration.set(fx * charge, fy * charge);
             velocity.add(acceleration);
             position.add(velocity);
         }
@@ -0,0 +1,371 @@
+package org.example.model;
+
+import org.example.model.config.ConfigManager;
+import org.example.model.config.ConfigSnapshot;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.motion.ParticleIntegrator;
+import org.example.model.motion.ParticleIntegrators;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PVector;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static org.example.model.CommonMath.FORCE_X;
+import static org.example.model.CommonMath.FORCE_Y;
+import static org.example.model.motion.ParticleIntegrator.VX;
+import static org.example.model.motion.ParticleIntegrator.VY;
+import static org.example.model.motion.ParticleIntegrator.X;
+import static org.example.model.motion.ParticleIntegrator.Y;
+
+// All test charges as a particle system: position, velocity and charge in parallel float arrays, advanced
+// in bulk without allocating, and drawn as one POINTS pass per charge sign instead of an ellipse each.
+// Particles that wander far off the canvas are dropped by compacting the arrays in place, keeping the
+// survivors in the order they were added. Reads as a List of TestCharges for callers that want objects;
+// those are copies created on demand.
+//
+// Each step advances every particle by a fixed timestep with a pluggable ParticleIntegrator. Where a
+// particle would travel more than the sub-step length in one step (fast, or deep in a charge's 1/r^2
+// well), the step is split into up to maxSubsteps equal sub-steps, so close passes stay stable without
+// shrinking the timestep everywhere.
+//
+// Positions before the latest step are kept as well, so a frame that falls between two fixed physics
+// steps can draw the particles part of the way from one to the other.
+//
+// Stepping can be split over a fork/join pool. Particles don't interact, each one is written by exactly
+// one chunk, and every chunk has its own scratch, so the result is the same for any number of threads.
+public class TestChargeSwarm extends AbstractList<TestCharge> {
+    private static final int INITIAL_CAPACITY = 64;
+    // particles per fork/join leaf task
+    private static final int CHUNK_SIZE = 1024;
+
+    private float[] xs;
+    private float[] ys;
+    private float[] vxs;
+    private float[] vys;
+    private float[] qs;
+    // positions as of the last rememberPositions()
+    private float[] previousXs;
+    private float[] previousYs;
+    private int count;
+
+    private ParticleIntegrator integrator;
+    private float timestep;
+    private int maxSubsteps;
+    private float substepLength;
+
+    public TestChargeSwarm() {
+        this(INITIAL_CAPACITY);
+    }
+
+    // Integrator, timestep and sub-stepping come from the test.charges.* settings.
+    public TestChargeSwarm(int capacity) {
+        capacity = Math.max(capacity, 1);
+        xs = new float[capacity];
+        ys = new float[capacity];
+        vxs = new float[capacity];
+        vys = new float[capacity];
+        qs = new float[capacity];
+        previousXs = new float[capacity];
+        previousYs = new float[capacity];
+
+        applySettings(ConfigManager.getInstance().snapshot());
+    }
+
+    // Takes integrator, timestep and sub-stepping from the test.charges.* settings; throws
+    // IllegalArgumentException, changing nothing, if they are invalid.
+    public void applySettings(ConfigSnapshot settings) {
+        ParticleIntegrator integrator = ParticleIntegrators.create(settings.testChargesIntegrator);
+        float previousTimestep = timestep;
+        setTimestep(settings.testChargesTimestep);
+        try {
+            setSubstepping(settings.testChargesMaxSubsteps, settings.testChargesSubstepLength);
+        } catch (IllegalArgumentException e) {
+            timestep = previousTimestep;
+            throw e;
+        }
+        this.integrator = integrator;
+    }
+
+    public void setIntegrator(ParticleIntegrator integrator) {
+        this.integrator = integrator;
+    }
+
+    // Simulated time per step, in frames of the original one-step-per-frame motion.
+    public void setTimestep(float timestep) {
+        if (!(timestep > 0)) {
+            throw new IllegalArgumentException("Test-charge timestep must be positive: " + timestep);
+        }
+        this.timestep = timestep;
+    }
+
+    // A step is split once a particle would travel further than substepLength pixels in it, into at most
+    // maxSubsteps sub-steps; maxSubsteps 1 turns sub-stepping off.
+    public void setSubstepping(int maxSubsteps, float substepLength) {
+        if (maxSubsteps < 1) {
+            throw new IllegalArgumentException("Test-charge sub-steps must be at least 1: " + maxSubsteps);
+        }
+        if (!(substepLength > 0)) {
+            throw new IllegalArgumentException("Test-charge sub-step length must be positive: " + substepLength);
+        }
+        this.maxSubsteps = maxSubsteps;
+        this.substepLength = substepLength;
+    }
+
+    // Adds a particle at rest.
+    public void add(float x, float y, float q) {
+        ensureCapacity(count + 1);
+        xs[count] = x;
+        ys[count] = y;
+        vxs[count] = 0f;
+        vys[count] = 0f;
+        qs[count] = q;
+        previousXs[count] = x;
+        previousYs[count] = y;
+        count++;
+    }
+
+    @Override
+    public void clear() {
+        count = 0;
+    }
+
+    // Makes room for n particles in total, e.g. before adding a whole grid of them.
+    public void ensureCapacity(int n) {
+        if (n > xs.length) {
+            int capacity = Math.max(n, xs.length * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            vxs = Arrays.copyOf(vxs, capacity);
+            vys = Arrays.copyOf(vys, capacity);
+            qs = Arrays.copyOf(qs, capacity);
+            previousXs = Arrays.copyOf(previousXs, capacity);
+            previousYs = Arrays.copyOf(previousYs, capacity);
+        }
+    }
+
+    // Records the current positions as the ones display() interpolates from; called before each step.
+    public void rememberPositions() {
+        System.arraycopy(xs, 0, previousXs, 0, count);
+        System.arraycopy(ys, 0, previousYs, 0, count);
+    }
+
+    // One step of every particle, evaluating the force at each one in turn.
+    public void move(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        move(pointCharges, evaluator, null);
+    }
+
+    // As move(pointCharges, evaluator), in chunks on the pool; a null pool steps on the calling thread.
+    // The evaluator must be safe to call from several threads, as all FieldEvaluators are.
+    public void move(ChargeStore pointCharges, FieldEvaluator evaluator, ForkJoinPool pool) {
+        forEachChunk(pool, (from, to) -> {
+            Scratch scratch = new Scratch(pointCharges, evaluator);
+            for (int i = from; i < to; i++) {
+                scratch.field.forceAt(xs[i], ys[i], scratch.force);
+                step(i, scratch.force[FORCE_X], scratch.force[FORCE_Y], scratch);
+            }
+        });
+    }
+
+    // One step of every particle starting from forces computed elsewhere (e.g. a batch evaluation over
+    // getXs() and getYs()); forceXs[i] and forceYs[i] belong to particle i. Integrators that need the
+    // force anywhere else (later sub-steps, intermediate stages) evaluate it with evaluator.
+    public void applyForces(float[] forceXs, float[] forceYs, ChargeStore pointCharges, FieldEvaluator evaluator) {
+        applyForces(forceXs, forceYs, pointCharges, evaluator, null);
+    }
+
+    public void applyForces(float[] forceXs, float[] forceYs, ChargeStore pointCharges, FieldEvaluator evaluator,
+                            ForkJoinPool pool) {
+        forEachChunk(pool, (from, to) -> {
+            Scratch scratch = new Scratch(pointCharges, evaluator);
+            for (int i = from; i < to; i++) {
+                step(i, forceXs[i], forceYs[i], scratch);
+            }
+        });
+    }
+
+    private void forEachChunk(ForkJoinPool pool, Range range) {
+        if (pool == null || count <= CHUNK_SIZE) {
+            range.run(0, count);
+        } else {
+            pool.invoke(new Chunk(0, count, range));
+        }
+    }
+
+    // One timestep of particle i from the force at its position. As in TestCharge.applyForce, a particle
+    // sitting on a singularity (infinite force) doesn't move; a sub-step that would leave the particle
+    // somewhere non-finite is undone and ends the step.
+    private void step(int i, float forceX, float forceY, Scratch scratch) {
+        if (Float.isInfinite((float) Math.sqrt(forceX * forceX + forceY * forceY))) {
+            return;
+        }
+        float[] state = scratch.state, force = scratch.force;
+        state[X] = xs[i];
+        state[Y] = ys[i];
+        state[VX] = vxs[i];
+        state[VY] = vys[i];
+        force[FORCE_X] = forceX;
+        force[FORCE_Y] = forceY;
+        float q = qs[i];
+
+        int substeps = substeps(state, q, force);
+        float dt = substeps == 1 ? timestep : timestep / substeps;
+        boolean forceKnown = true;
+        for (int s = 0; s < substeps; s++) {
+            if (!forceKnown) {
+                scratch.field.forceAt(state[X], state[Y], force);
+            }
+            float x = state[X], y = state[Y], vx = state[VX], vy = state[VY];
+            forceKnown = integrator.step(state, q, force, dt, scratch.field);
+            if (!Float.isFinite(state[X]) || !Float.isFinite(state[Y])
+                    || !Float.isFinite(state[VX]) || !Float.isFinite(state[VY])) {
+                state[X] = x;
+                state[Y] = y;
+                state[VX] = vx;
+                state[VY] = vy;
+                break;
+            }
+        }
+        xs[i] = state[X];
+        ys[i] = state[Y];
+        vxs[i] = state[VX];
+        vys[i] = state[VY];
+    }
+
+    // Sub-steps needed to keep the distance travelled per sub-step, estimated as |v| dt + |a| dt^2 / 2
+    // from the start of the step, within substepLength.
+    private int substeps(float[] state, float q, float[] force) {
+        if (maxSubsteps == 1) {
+            return 1;
+        }
+        double speed = Math.hypot(state[VX], state[VY]);
+        double acceleration = Math.hypot(force[FORCE_X], force[FORCE_Y]) * Math.abs(q);
+        double distance = speed * timestep + 0.5 * acceleration * timestep * timestep;
+        double needed = Math.ceil(distance / substepLength);
+        if (Double.isNaN(needed)) {
+            return maxSubsteps;
+        }
+        return (int) Math.max(1, Math.min(needed, maxSubsteps));
+    }
+
+    // Drops particles outside [minX, maxX] x [minY, maxY] (or whose position is no longer finite) and
+    // returns how many were dropped.
+    public int retainWithin(float minX, float minY, float maxX, float maxY) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            float x = xs[i], y = ys[i];
+            // written so that NaN fails the test
+            if (!(x >= minX && x <= maxX && y >= minY && y <= maxY)) {
+                continue;
+            }
+            if (kept != i) {
+                xs[kept] = x;
+                ys[kept] = y;
+                vxs[kept] = vxs[i];
+                vys[kept] = vys[i];
+                qs[kept] = qs[i];
+                previousXs[kept] = previousXs[i];
+                previousYs[kept] = previousYs[i];
+            }
+            kept++;
+        }
+        int dropped = count - kept;
+        count = kept;
+        return dropped;
+    }
+
+    public void display(PApplet app) {
+        display(app, 1f);
+    }
+
+    // Draws each particle alpha of the way from its remembered position to its current one.
+    public void display(PApplet app, float alpha) {
+        if (count == 0) {
+            return;
+        }
+        ConfigManager config = ConfigManager.getInstance();
+        app.pushStyle();
+        app.strokeCap(PConstants.ROUND);
+        app.strokeWeight(config.getTestChargeDiameter());
+        displaySign(app, 1, config.getPositiveChargeColor(), alpha);
+        displaySign(app, -1, config.getNegativeChargeColor(), alpha);
+        displaySign(app, 0, config.getNeutralChargeColor(), alpha);
+        app.popStyle();
+    }
+
+    // Round points of the stroke weight's diameter at every particle whose charge has the given sign.
+    private void displaySign(PApplet app, int sign, int color, float alpha) {
+        app.stroke(color);
+        app.beginShape(PConstants.POINTS);
+        for (int i = 0; i < count; i++) {
+            if ((int) Math.signum(qs[i]) == sign) {
+                float x = alpha >= 1f ? xs[i] : previousXs[i] + (xs[i] - previousXs[i]) * alpha;
+                float y = alpha >= 1f ? ys[i] : previousYs[i] + (ys[i] - previousYs[i]) * alpha;
+                app.vertex(x, y);
+            }
+        }
+        app.endShape();
+    }
+
+    @Override
+    public TestCharge get(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + count);
+        }
+        return new TestCharge(new PVector(xs[i], ys[i]), qs[i]);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    // Per-chunk working memory, so chunks share nothing they write to.
+    private static final class Scratch {
+        final float[] state = new float[4];
+        final float[] force = new float[2];
+        final ParticleIntegrator.ForceField field;
+
+        Scratch(ChargeStore pointCharges, FieldEvaluator evaluator) {
+            this.field = (x, y, out) -> evaluator.forceAt(pointCharges, x, y, out);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    // Halves [from, to) until it is at most CHUNK_SIZE particles long.
+    private static final class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final Range range;
+
+        Chunk(int from, int to, Range range) {
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                range.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Chunk(from, mid, range), new Chunk(mid, to, range));
+        }
+    }
+
+    // Backing arrays; only the first size() entries are meaningful, and add() may replace them.
+    public float[] getXs() { return xs; }
+    public float[] getYs() { return ys; }
+    public float[] getVxs() { return vxs; }
+    public float[] getVys() { return vys; }
+    public float[] getQs() { return qs; }
+}
@@ -1,25 +1,75 @@
 package org.example.model;
 
 import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
 import processing.core.PGraphics;
-import processing.core.PVector;
 import processing.core.PApplet;
 
-import java.util.ArrayList;
-
-import static processing.core.PApplet.map;
-
 public class VoltageGradient {
     Float voltageFidelity = ConfigManager.getInstance().getGridSize() / 3;
     Integer cols;
     Integer rows;
     public final PGraphics pg;
 
+    private final VoltageGrid grid;
+    // cell column / row covering each pixel column / row, or -1 outside the grid
+    private final int[] pixelCol;
+    private final int[] pixelRow;
+    // pixels covered by each of the grid's tiles
+    private final int[] tilePx0, tilePy0, tilePx1, tilePy1;
+    // the colours currently in pg, and which tiles the next update has to re-fill
+    private final int[] shownColor;
+    private final boolean[] tileDirty;
+    private int uploadedTiles;
+
     public VoltageGradient(SimulationModel simulation) {
         cols = (int) ((simulation.getWidth() - ConfigManager.getInstance().getSidePanelWidth() - ConfigManager.getInstance().getSidePanelPadding()) / voltageFidelity);
         rows = (int) (simulation.getHeight() / voltageFidelity);
 
         pg = simulation.parent.createGraphics((int) simulation.getWidth(), (int) simulation.getHeight());
+        grid = new VoltageGrid(cols, rows, voltageFidelity);
+        shownColor = new int[cols * rows];
+
+        pixelCol = new int[pg.width];
+        for (int px = 0; px < pg.width; px++) {
+            int col = (int) (px / voltageFidelity);
+            pixelCol[px] = col < cols ? col : -1;
+        }
+        pixelRow = new int[pg.height];
+        for (int py = 0; py < pg.height; py++) {
+            int row = (int) (py / voltageFidelity);
+            pixelRow[py] = row < rows ? row : -1;
+        }
+
+        // first pixel column / row of each cell column / row, plus the end of the grid
+        int[] colStart = new int[cols + 1];
+        for (int px = pg.width - 1; px >= 0; px--) {
+            colStart[pixelCol[px] < 0 ? cols : pixelCol[px]] = px;
+        }
+        int[] rowStart = new int[rows + 1];
+        for (int py = pg.height - 1; py >= 0; py--) {
+            rowStart[pixelRow[py] < 0 ? rows : pixelRow[py]] = py;
+        }
+        if (pixelCol.length == 0 || pixelCol[pg.width - 1] >= 0) colStart[cols] = pg.width;
+        if (pixelRow.length == 0 || pixelRow[pg.height - 1] >= 0) rowStart[rows] = pg.height;
+
+        int tileCount = grid.getTiles().size();
+        tilePx0 = new int[tileCount];
+        tilePy0 = new int[tileCount];
+        tilePx1 = new int[tileCount];
+        tilePy1 = new int[tileCount];
+        for (VoltageGrid.Tile tile : grid.getTiles()) {
+            tilePx0[tile.index()] = colStart[tile.x0()];
+            tilePy0[tile.index()] = rowStart[tile.y0()];
+            tilePx1[tile.index()] = colStart[tile.x1()];
+            tilePy1[tile.index()] = rowStart[tile.y1()];
+        }
+        tileDirty = new boolean[tileCount];
+    }
+
+    // Next update recomputes the whole map.
+    public void invalidate() {
+        grid.invalidate();
     }
 
     public void display(PApplet app) {
@@ -29,40 +79,107 @@ public class VoltageGradient {
         app.popStyle();
     }
 
-    public void updateVoltageGradient(ArrayList<PointCharge> pointCharges) {
-        pg.beginDraw();
-        pg.clear();
-        pg.noStroke();
-
-        for (Integer x = 0; x < cols; x++) {
-            for (Integer y = 0; y < rows; y++) {
-                Float fx = x * voltageFidelity, fy = y * voltageFidelity;
-                Float v    = CommonMath.voltageAtPoint(new PVector(fx, fy), pointCharges);
-
-                // compute color
-                Integer c;
-                Float absV = Math.abs(v);
-                Float intensity = (float) Math.round(
-                        map(absV, 0.0f, 1000000f, 0f, 250f)
-                );
-                Float red=0.0f, blue=0.0f, alpha=0.0f;
-                if (Math.abs(v) >= 10f && intensity*5 >= 50f) {
-                    if (v>0) red = intensity;
-                    else    blue = intensity;
-                    alpha = intensity*5;
-                }
-                c = pg.color(red, 0, blue, alpha);
+    public void updateVoltageGradient(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        updateVoltageGradient(pointCharges, evaluator, false);
+    }
 
-                // draw the cell onto the buffer
-                pg.fill(c);
-                pg.noStroke();
-                pg.rect(fx, fy, voltageFidelity, voltageFidelity);
+    // interactive: a charge is being dragged, so a coarse preview is preferred over a full recompute
+    public void updateVoltageGradient(ChargeStore pointCharges, FieldEvaluator evaluator, boolean interactive) {
+        if (grid.update(pointCharges, evaluator, interactive)) {
+            showColors(grid.getColors());
+        } else {
+            uploadedTiles = 0;
+        }
+    }
+
+    // Shows a full cols x rows colour buffer, e.g. one computed by SimulationWorker. Only tiles whose
+    // colours differ from what pg already shows are re-filled, and pg is not touched at all when none
+    // changed.
+    public void showColors(int[] colors) {
+        grid.runTiles(tile -> {
+            boolean dirty = false;
+            for (int y = tile.y0(); y < tile.y1(); y++) {
+                for (int i = y * cols + tile.x0(), end = y * cols + tile.x1(); i < end; i++) {
+                    if (shownColor[i] != colors[i]) {
+                        shownColor[i] = colors[i];
+                        dirty = true;
+                    }
+                }
             }
+            tileDirty[tile.index()] = dirty;
+        });
+
+        uploadedTiles = 0;
+        for (boolean dirty : tileDirty) {
+            if (dirty) uploadedTiles++;
         }
+        if (uploadedTiles == 0) {
+            return;
+        }
+
+        pg.beginDraw();
+        pg.loadPixels();
+        grid.runTiles(tile -> {
+            if (tileDirty[tile.index()]) fillPixels(tile.index());
+        });
+        // one upload for the whole buffer: the JAVA2D renderer ignores sub-rectangles and would copy the
+        // full raster once per tile
+        pg.updatePixels();
 
 //        // apply a Gaussian blur of radius 4 pixels:
 //        pg.filter(PApplet.BLUR, 2);
 
         pg.endDraw();
     }
+
+    private void fillPixels(int tile) {
+        int[] pixels = pg.pixels;
+        int width = pg.width;
+        for (int py = tilePy0[tile]; py < tilePy1[tile]; py++) {
+            int offset = py * width;
+            int rowOffset = pixelRow[py] * cols;
+            for (int px = tilePx0[tile]; px < tilePx1[tile]; px++) {
+                pixels[offset + px] = shownColor[rowOffset + pixelCol[px]];
+            }
+        }
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getVoltageFidelity() {
+        return voltageFidelity;
+    }
+
+    // true while a drag preview is still being refined to full resolution
+    public boolean isRefining() {
+        return grid.isRefining();
+    }
+
+    // true if the last update only applied one charge's change rather than re-summing every charge
+    public boolean isLastUpdateIncremental() {
+        return grid.isLastUpdateIncremental();
+    }
+
+    public float getVoltage(int col, int row) {
+        return grid.getVoltage(col, row);
+    }
+
+    public int getColor(int col, int row) {
+        return shownColor[row * cols + col];
+    }
+
+    // number of tiles whose colours changed in the last update (0: pg was left alone)
+    public int getUploadedTileCount() {
+        return uploadedTiles;
+    }
+
+    public int getTileCount() {
+        return tileDirty.length;
+    }
 }
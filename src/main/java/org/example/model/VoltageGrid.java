@@ -0,0 +1,366 @@
+package org.example.model;
+
+import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.FmmEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import static org.example.model.CommonMath.MIN_DISTANCE;
+import static processing.core.PApplet.map;
+
+// The voltage map's numbers: the voltage and ARGB colour of every cell of a cols x rows grid, kept up to
+// date as charges change. VoltageGradient draws it; SimulationWorker owns its own copy off-thread.
+public class VoltageGrid {
+    // cells per tile side; a tile is the unit of work handed to the fork/join pool
+    static final int TILE_SIZE = 32;
+    private static final int UNCHANGED = -2;
+
+    private final float voltageFidelity;
+    private final int cols;
+    private final int rows;
+
+    // cell corners as FMM targets, the voltage and the ARGB colour of each cell (row-major, y * cols + x)
+    private final float[] cellX;
+    private final float[] cellY;
+    private final float[] cellVoltage;
+    private final int[] cellColor;
+    private final List<Tile> tiles = new ArrayList<>();
+    // per tile, a bound on how far its voltages have moved since its colours were last computed
+    private float[] uncoloredVolts;
+    private FmmEngine fmmEngine;
+
+    // The charges cellVoltage was computed from. Potential is linear in the charges, so when a single
+    // charge moves, changes value or is appended, its old contribution is subtracted and the new one
+    // added instead of re-summing every charge; a full recompute every few updates bounds float drift.
+    private float[] snapshotX = new float[0], snapshotY = new float[0], snapshotQ = new float[0];
+    private int snapshotCount = -1;
+    private FieldEvaluator snapshotEvaluator;
+    private int incrementalUpdates;
+    private boolean lastUpdateIncremental;
+
+    // While a charge is dragged, changes that can't be applied incrementally render a coarse preview
+    // (every coarseFactor-th cell evaluated, bilinear in between); later frames recompute rows from
+    // refineRow down at full resolution, a bounded amount of work per frame.
+    private final int coarseFactor = ConfigManager.getInstance().getVoltageCoarseFactor();
+    private float[] coarseVoltage = new float[0];
+    private int refineRow;
+
+    public VoltageGrid(int cols, int rows, float voltageFidelity) {
+        this.cols = cols;
+        this.rows = rows;
+        this.voltageFidelity = voltageFidelity;
+
+        cellX = new float[cols * rows];
+        cellY = new float[cols * rows];
+        cellVoltage = new float[cols * rows];
+        cellColor = new int[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                cellX[y * cols + x] = x * voltageFidelity;
+                cellY[y * cols + x] = y * voltageFidelity;
+            }
+        }
+
+        for (int y = 0; y < rows; y += TILE_SIZE) {
+            for (int x = 0; x < cols; x += TILE_SIZE) {
+                tiles.add(new Tile(tiles.size(), x, y, Math.min(x + TILE_SIZE, cols), Math.min(y + TILE_SIZE, rows)));
+            }
+        }
+        uncoloredVolts = new float[tiles.size()];
+        refineRow = rows;
+    }
+
+    // interactive: a charge is being dragged, so a coarse preview is preferred over a full recompute.
+    // Returns false if nothing had to be recomputed.
+    public boolean update(ChargeStore pointCharges, FieldEvaluator evaluator, boolean interactive) {
+        int changed = singleChangedCharge(pointCharges, evaluator);
+        if (changed == UNCHANGED) {
+            // the grid already holds these charges, apart from any rows still to refine
+            if (!isRefining()) {
+                return false;
+            }
+            refine(pointCharges, evaluator);
+            return true;
+        }
+        lastUpdateIncremental = changed >= 0 && !isRefining()
+                && incrementalUpdates < ConfigManager.getInstance().getVoltageFullRecomputeInterval();
+        if (lastUpdateIncremental) {
+            updateIncrementally(pointCharges, changed);
+            incrementalUpdates++;
+        } else if (interactive) {
+            updateCoarse(pointCharges, evaluator);
+            refineRow = 0;
+            incrementalUpdates = 0;
+        } else {
+            updateFully(pointCharges, evaluator);
+            refineRow = rows;
+            incrementalUpdates = 0;
+        }
+        takeSnapshot(pointCharges, evaluator);
+        return true;
+    }
+
+    private void updateFully(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        int cells = cols * rows;
+        if ((long) pointCharges.size() * cells >= ConfigManager.getInstance().getFmmThreshold()) {
+            if (fmmEngine == null) fmmEngine = new FmmEngine();
+            fmmEngine.evaluate(pointCharges, cellX, cellY, cells, cellVoltage, null, null);
+            runTiles(this::colorTile);
+        } else {
+            runTiles(tile -> {
+                forEachCell(tile, i -> cellVoltage[i] = evaluator.voltageAt(pointCharges, cellX[i], cellY[i]));
+                colorTile(tile);
+            });
+        }
+    }
+
+    private void updateCoarse(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        int nodeCols = coarseNodes(cols), nodeRows = coarseNodes(rows);
+        if (coarseVoltage.length < nodeCols * nodeRows) {
+            coarseVoltage = new float[nodeCols * nodeRows];
+        }
+        // each node is evaluated by the tile that contains its cell
+        runTiles(tile -> {
+            for (int j = 0; j < nodeRows; j++) {
+                int y = coarseCell(j, rows);
+                if (y < tile.y0 || y >= tile.y1) continue;
+                for (int i = 0; i < nodeCols; i++) {
+                    int x = coarseCell(i, cols);
+                    if (x < tile.x0 || x >= tile.x1) continue;
+                    coarseVoltage[j * nodeCols + i] = evaluator.voltageAt(pointCharges, x * voltageFidelity, y * voltageFidelity);
+                }
+            }
+        });
+        runTiles(tile -> {
+            for (int y = tile.y0; y < tile.y1; y++) {
+                int j = Math.min(y / coarseFactor, nodeRows - 1), j1 = Math.min(j + 1, nodeRows - 1);
+                int y0 = coarseCell(j, rows), y1 = coarseCell(j1, rows);
+                float ty = y1 == y0 ? 0f : (float) (y - y0) / (y1 - y0);
+                for (int x = tile.x0; x < tile.x1; x++) {
+                    int i = Math.min(x / coarseFactor, nodeCols - 1), i1 = Math.min(i + 1, nodeCols - 1);
+                    int x0 = coarseCell(i, cols), x1 = coarseCell(i1, cols);
+                    float tx = x1 == x0 ? 0f : (float) (x - x0) / (x1 - x0);
+                    float top = coarseVoltage[j * nodeCols + i] * (1 - tx) + coarseVoltage[j * nodeCols + i1] * tx;
+                    float bottom = coarseVoltage[j1 * nodeCols + i] * (1 - tx) + coarseVoltage[j1 * nodeCols + i1] * tx;
+                    cellVoltage[y * cols + x] = top * (1 - ty) + bottom * ty;
+                }
+            }
+            colorTile(tile);
+        });
+    }
+
+    // coarse nodes along an axis of n cells: every coarseFactor-th cell plus the last one
+    private int coarseNodes(int n) {
+        return (n - 1 + coarseFactor - 1) / coarseFactor + 1;
+    }
+
+    private int coarseCell(int node, int n) {
+        return Math.min(node * coarseFactor, n - 1);
+    }
+
+    // Recomputes the next rows of the preview exactly, as many as the per-frame budget allows.
+    private void refine(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        long perRow = (long) cols * Math.max(1, pointCharges.size());
+        int from = refineRow;
+        int to = (int) Math.min(rows, from + Math.max(1, ConfigManager.getInstance().getVoltageRefineBudget() / perRow));
+        runTiles(tile -> {
+            int y0 = Math.max(tile.y0, from), y1 = Math.min(tile.y1, to);
+            if (y0 >= y1) return;
+            forEachCell(tile, y0, y1, i -> cellVoltage[i] = evaluator.voltageAt(pointCharges, cellX[i], cellY[i]));
+            colorCells(tile, y0, y1);
+        });
+        refineRow = to;
+    }
+
+    // Forgets which charges the grid holds, so the next update() recomputes every cell, e.g. after the
+    // Coulomb constant or fmm.order changed.
+    public void invalidate() {
+        snapshotCount = -1;
+        fmmEngine = null;
+    }
+
+    // true while a drag preview is still being refined to full resolution
+    public boolean isRefining() {
+        return refineRow < rows;
+    }
+
+    private void updateIncrementally(ChargeStore pointCharges, int changed) {
+        float k = ConfigManager.getInstance().snapshot().coulombsConstant;
+        boolean appended = changed >= snapshotCount;
+        float oldX = appended ? 0f : snapshotX[changed], oldY = appended ? 0f : snapshotY[changed];
+        float oldKq = appended ? 0f : k * snapshotQ[changed];
+        float newX = pointCharges.getXs()[changed], newY = pointCharges.getYs()[changed];
+        float newKq = k * pointCharges.getQs()[changed];
+        float tolerance = ConfigManager.getInstance().getVoltageTileTolerance();
+        runTiles(tile -> {
+            // every cell takes the change, so the voltages (and the contours traced from them) stay exact
+            forEachCell(tile, i -> cellVoltage[i] += newKq / distance(cellX[i], cellY[i], newX, newY)
+                    - oldKq / distance(cellX[i], cellY[i], oldX, oldY));
+            // |dV| anywhere in the tile is at most |K q| / (distance to the tile) for each position; the
+            // colours are only recomputed once the tile may have moved by the tolerance since they were
+            float bound = Math.abs(newKq) / distance(tile, newX, newY) + Math.abs(oldKq) / distance(tile, oldX, oldY);
+            uncoloredVolts[tile.index()] += bound;
+            if (uncoloredVolts[tile.index()] >= tolerance) {
+                colorTile(tile);
+            }
+        });
+    }
+
+    // distance from a point to the nearest cell corner of the tile's grid area
+    private float distance(Tile tile, float x, float y) {
+        float minX = tile.x0 * voltageFidelity, maxX = (tile.x1 - 1) * voltageFidelity;
+        float minY = tile.y0 * voltageFidelity, maxY = (tile.y1 - 1) * voltageFidelity;
+        return distance(x, y, Math.max(minX, Math.min(x, maxX)), Math.max(minY, Math.min(y, maxY)));
+    }
+
+    private static float distance(float x0, float y0, float x1, float y1) {
+        float dx = x1 - x0, dy = y1 - y0;
+        float r = (float) Math.sqrt(dx * dx + dy * dy);
+        return r < MIN_DISTANCE ? MIN_DISTANCE : r;
+    }
+
+    // Index of the only charge that differs from the snapshot (including one appended at the end),
+    // UNCHANGED, or -1 when more than one charge changed, a charge was removed or the evaluator was swapped.
+    private int singleChangedCharge(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        int n = pointCharges.size();
+        if (evaluator != snapshotEvaluator || snapshotCount < 0 || n < snapshotCount || n > snapshotCount + 1) {
+            return -1;
+        }
+        float[] xs = pointCharges.getXs(), ys = pointCharges.getYs(), qs = pointCharges.getQs();
+        int changed = n > snapshotCount ? snapshotCount : -1;
+        for (int i = 0; i < snapshotCount; i++) {
+            if (xs[i] != snapshotX[i] || ys[i] != snapshotY[i] || qs[i] != snapshotQ[i]) {
+                if (changed >= 0) {
+                    return -1;
+                }
+                changed = i;
+            }
+        }
+        return changed < 0 ? UNCHANGED : changed;
+    }
+
+    private void takeSnapshot(ChargeStore pointCharges, FieldEvaluator evaluator) {
+        int n = pointCharges.size();
+        if (snapshotX.length < n) {
+            snapshotX = Arrays.copyOf(pointCharges.getXs(), n);
+            snapshotY = Arrays.copyOf(pointCharges.getYs(), n);
+            snapshotQ = Arrays.copyOf(pointCharges.getQs(), n);
+        } else {
+            System.arraycopy(pointCharges.getXs(), 0, snapshotX, 0, n);
+            System.arraycopy(pointCharges.getYs(), 0, snapshotY, 0, n);
+            System.arraycopy(pointCharges.getQs(), 0, snapshotQ, 0, n);
+        }
+        snapshotCount = n;
+        snapshotEvaluator = evaluator;
+    }
+
+    // true if the last update only applied one charge's change rather than re-summing every charge
+    public boolean isLastUpdateIncremental() {
+        return lastUpdateIncremental;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    // Live colour buffer (row-major, y * cols + x); copy it before handing it to another thread.
+    public int[] getColors() {
+        return cellColor;
+    }
+
+    // Live voltage buffer (row-major, y * cols + x), sampled at (x, y) * voltageFidelity.
+    public float[] getVoltages() {
+        return cellVoltage;
+    }
+
+    public float getVoltageFidelity() {
+        return voltageFidelity;
+    }
+
+    public float getVoltage(int col, int row) {
+        return cellVoltage[row * cols + col];
+    }
+
+    public int getColor(int col, int row) {
+        return cellColor[row * cols + col];
+    }
+
+    // Same colour map as the old per-cell rect fill: red for positive, blue for negative, alpha = 5 * intensity.
+    static int voltageColor(float v) {
+        float absV = Math.abs(v);
+        float intensity = (float) Math.round(map(absV, 0.0f, 1000000f, 0f, 250f));
+        if (absV < 10f || intensity * 5 < 50f) {
+            return 0;
+        }
+        int level = Math.min(255, (int) intensity);
+        int alpha = Math.min(255, (int) (intensity * 5));
+        return alpha << 24 | (v > 0 ? level << 16 : level);
+    }
+
+    private void colorTile(Tile tile) {
+        colorCells(tile, tile.y0, tile.y1);
+        uncoloredVolts[tile.index()] = 0f;
+    }
+
+    private void colorCells(Tile tile, int fromRow, int toRow) {
+        forEachCell(tile, fromRow, toRow, i -> cellColor[i] = voltageColor(cellVoltage[i]));
+    }
+
+    private void forEachCell(Tile tile, IntConsumer action) {
+        forEachCell(tile, tile.y0, tile.y1, action);
+    }
+
+    private void forEachCell(Tile tile, int fromRow, int toRow, IntConsumer action) {
+        for (int y = fromRow; y < toRow; y++) {
+            for (int i = y * cols + tile.x0, end = y * cols + tile.x1; i < end; i++) {
+                action.accept(i);
+            }
+        }
+    }
+
+    List<Tile> getTiles() {
+        return tiles;
+    }
+
+    void runTiles(Consumer<Tile> job) {
+        ForkJoinPool.commonPool().invoke(new TileTask(job, 0, tiles.size()));
+    }
+
+    // A block of cells, x0..x1 by y0..y1.
+    record Tile(int index, int x0, int y0, int x1, int y1) {}
+
+    // Runs a job over a range of tiles, splitting until a single tile is left.
+    private class TileTask extends RecursiveAction {
+        private final Consumer<Tile> job;
+        private final int from, to;
+
+        TileTask(Consumer<Tile> job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int t = from; t < to; t++) {
+                    job.accept(tiles.get(t));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileTask(job, from, mid), new TileTask(job, mid, to));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.model.config;
+
+import java.util.Set;
+
+// Told about every published settings change, on whichever thread made it (the file watcher, for
+// reloads), so implementations should only record what to invalidate and act on it later.
+public interface ConfigListener {
+    void onConfigChanged(ConfigSnapshot previous, ConfigSnapshot current, Set<String> changedKeys);
+}
@@ -1,10 +1,47 @@
 package org.example.model.config;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+// Settings in layers, later ones winning: the built-in defaults below, the properties file (efield.properties
+// in the working directory, or wherever -Defield.config points), system properties prefixed with
+// "efield." (e.g. -Defield.grid.size=30), and values set() at runtime. The file can be watched and is
+// re-read when it changes; every change is published as a new ConfigSnapshot and reported to listeners
+// with the keys whose values changed.
 public final class ConfigManager {
+    public static final String FILE_PROPERTY = "efield.config";
+    public static final String DEFAULT_FILE = "efield.properties";
+    public static final String SYSTEM_PREFIX = "efield.";
+
     private static volatile ConfigManager instance;
+    // built-in defaults; also the list of known keys
     private final Properties props = new Properties();
+    // values set() at runtime
+    private final Properties overrides = new Properties();
+    // all layers merged, as parsed into snapshot
+    private Properties effective;
+    // parsed copy of effective; replaced whole on every change, so readers never see a half-applied update
+    private volatile ConfigSnapshot snapshot;
+    private final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+
+    private Path file;
+    private WatchService watchService;
+    private Thread watcher;
 
     private ConfigManager() {
         props.setProperty("coulombs.constant",        "8990000");
@@ -19,13 +56,45 @@ public final class ConfigManager {
         props.setProperty("charge.radius",            String.valueOf(40 / 2.0f));
         props.setProperty("test.charge.diameter",     "10");
         props.setProperty("test.charge.radius",       String.valueOf(10 / 2.0f));
+        props.setProperty("test.charges.parallelism", "0");
+        props.setProperty("test.charges.integrator",  "euler");
+        props.setProperty("test.charges.timestep",    "1");
+        props.setProperty("test.charges.max.substeps", "1");
+        props.setProperty("test.charges.substep.length", "5");
+        props.setProperty("physics.steps.per.second", "60");
+        props.setProperty("physics.max.steps.per.frame", "5");
         props.setProperty("positive.charge.color",    "0xFFD2292D");
         props.setProperty("negative.charge.color",    "0xFF1761B0");
         props.setProperty("neutral.charge.color",     "0xFF555555");
         props.setProperty("equi.lines.accuracy",      "0.125");
         props.setProperty("equi.lines.limit",         "4500");
+        props.setProperty("equi.lines.extractor",     "trace");
+        props.setProperty("equi.lines.spacing",       "50000");
+        props.setProperty("equi.lines.family.size",   "10");
         props.setProperty("field.lines.per.coulomb",  "4");
+        props.setProperty("field.lines.parallelism",  "0");
+        props.setProperty("field.lines.integrator",   "euler");
+        props.setProperty("field.lines.tolerance",    "0.05");
         props.setProperty("field.vector.scale",       "500");
+        props.setProperty("field.evaluator",          "auto");
+        props.setProperty("barnes.hut.theta",         "0.5");
+        props.setProperty("barnes.hut.threshold",     "2000");
+        props.setProperty("fmm.order",                "6");
+        props.setProperty("fmm.threshold",            "50000000");
+        props.setProperty("voltage.full.recompute.interval", "120");
+        props.setProperty("voltage.tile.tolerance",   "1.0");
+        props.setProperty("voltage.coarse.factor",    "8");
+        props.setProperty("voltage.refine.budget",    "20000000");
+        effective = new Properties();
+        effective.putAll(props);
+        snapshot = new ConfigSnapshot(effective, 0);
+
+        file = Path.of(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            System.err.println("config: using defaults, " + e.getMessage());
+        }
     }
 
     public static ConfigManager getInstance() {
@@ -39,81 +108,399 @@ public final class ConfigManager {
         return instance;
     }
 
+    // The current settings, parsed. Stays the same object until a setting changes.
+    public ConfigSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    // Changes one existing setting and publishes a new snapshot. A value that doesn't parse as the
+    // setting's type is rejected and leaves everything as it was.
+    public synchronized void set(String key, String value) {
+        if (!props.containsKey(key)) {
+            throw new IllegalArgumentException("Unknown setting: " + key);
+        }
+        String previous = overrides.getProperty(key);
+        overrides.setProperty(key, value);
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            if (previous == null) overrides.remove(key);
+            else overrides.setProperty(key, previous);
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+        }
+    }
+
+    // Runtime overrides held until close(), e.g. for one batch run inside a longer-lived process.
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    // Sets every value as set() would and returns a Scope whose close() puts back the runtime overrides
+    // they replaced. If any value is rejected, the ones already set are put back before it throws.
+    public synchronized Scope override(Map<String, String> values) {
+        Properties saved = new Properties();
+        Set<String> absent = new TreeSet<>();
+        for (String key : values.keySet()) {
+            String previous = overrides.getProperty(key);
+            if (previous == null) absent.add(key);
+            else saved.setProperty(key, previous);
+        }
+        try {
+            values.forEach(this::set);
+        } catch (RuntimeException e) {
+            restore(saved, absent);
+            throw e;
+        }
+        return () -> restore(saved, absent);
+    }
+
+    private synchronized void restore(Properties saved, Set<String> absent) {
+        absent.forEach(overrides::remove);
+        overrides.putAll(saved);
+        reload();
+    }
+
+    // Reads the file and system properties again and publishes the result if any value changed. Throws
+    // UncheckedIOException if the file can't be read and IllegalArgumentException if a value doesn't
+    // parse; the current settings stay in place either way.
+    public synchronized void reload() {
+        Properties merged = new Properties();
+        merged.putAll(props);
+        if (file != null && Files.isRegularFile(file)) {
+            Properties fromFile = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                fromFile.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("can't read " + file, e);
+            }
+            overlay(merged, fromFile, "", file.toString());
+        }
+        overlay(merged, System.getProperties(), SYSTEM_PREFIX, "system properties");
+        overlay(merged, overrides, "", "overrides");
+
+        Set<String> changed = new TreeSet<>();
+        for (String key : props.stringPropertyNames()) {
+            if (!merged.getProperty(key).equals(effective.getProperty(key))) {
+                changed.add(key);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        ConfigSnapshot next;
+        try {
+            next = new ConfigSnapshot(merged, snapshot.version + 1);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid settings " + changed + ": " + e.getMessage(), e);
+        }
+        ConfigSnapshot previous = snapshot;
+        effective = merged;
+        snapshot = next;
+        Set<String> keys = Collections.unmodifiableSet(changed);
+        for (ConfigListener listener : listeners) {
+            listener.onConfigChanged(previous, next, keys);
+        }
+    }
+
+    // Copies the known keys among source's (after stripping prefix) into target.
+    private void overlay(Properties target, Properties source, String prefix, String origin) {
+        for (String name : source.stringPropertyNames()) {
+            if (!name.startsWith(prefix)) {
+                continue;
+            }
+            String key = name.substring(prefix.length());
+            if (props.containsKey(key)) {
+                target.setProperty(key, source.getProperty(name).trim());
+            } else if (prefix.isEmpty()) {
+                System.err.println("config: ignoring unknown setting " + key + " in " + origin);
+            }
+        }
+    }
+
+    // Switches to another settings file (null for none) and reloads; keeps watching if it was.
+    // A file that fails to load is not taken on: the previous file stays in use and watched.
+    public synchronized void setFile(Path file) {
+        boolean watching = watcher != null;
+        Path previous = this.file;
+        stopWatching();
+        this.file = file;
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            this.file = previous;
+            throw e;
+        } finally {
+            if (watching) {
+                startWatching();
+            }
+        }
+    }
+
+    public synchronized Path getFile() {
+        return file;
+    }
+
+    // Reloads whenever the settings file is created, changed or deleted, on a daemon thread. Listeners
+    // are then called on that thread.
+    public synchronized void startWatching() {
+        if (watcher != null || file == null) {
+            return;
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        Path name = file.getFileName();
+        WatchService service = null;
+        try {
+            service = dir.getFileSystem().newWatchService();
+            dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            System.err.println("config: can't watch " + file + ": " + e);
+            if (service != null) {
+                try {
+                    service.close();
+                } catch (IOException ignored) {
+                    // already failed
+                }
+            }
+            return;
+        }
+        watchService = service;
+        WatchService watched = service;
+        watcher = new Thread(() -> watch(watched, name), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("config: " + e);
+        }
+        watcher.interrupt();
+        watcher = null;
+        watchService = null;
+    }
+
+    private void watch(WatchService service, Path name) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean ours = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    ours |= event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context());
+                }
+                key.reset();
+                if (ours) {
+                    try {
+                        reload();
+                    } catch (RuntimeException e) {
+                        System.err.println("config: keeping current settings, " + e.getMessage());
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopWatching()
+        }
+    }
+
+    public void addListener(ConfigListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ConfigListener listener) {
+        listeners.remove(listener);
+    }
+
     // ——— Typed accessors ———
 
     public Float getCoulombsConstant() {
-        return Float.parseFloat(props.getProperty("coulombs.constant"));
+        return snapshot.coulombsConstant;
     }
 
     public Float getTestChargeCharge() {
-        return Float.parseFloat(props.getProperty("test.charge.charge"));
+        return snapshot.testChargeCharge;
     }
 
     public Float getPointChargeMaxValue() {
-        return Float.parseFloat(props.getProperty("point.charge.max.value"));
+        return snapshot.pointChargeMaxValue;
     }
 
     public Float getPointChargeMinValue() {
-        return Float.parseFloat(props.getProperty("point.charge.min.value"));
+        return snapshot.pointChargeMinValue;
     }
 
     public Float getChargeIncrementDelta() {
-        return Float.parseFloat(props.getProperty("charge.increment.delta"));
+        return snapshot.chargeIncrementDelta;
     }
 
     public Float getGridSize() {
-        return Float.parseFloat(props.getProperty("grid.size"));
+        return snapshot.gridSize;
     }
 
     public Integer getSidePanelWidth() {
-        return Integer.parseInt(props.getProperty("side.panel.width"));
+        return snapshot.sidePanelWidth;
     }
 
     public Integer getSidePanelPadding() {
-        return Integer.parseInt(props.getProperty("side.panel.padding"));
+        return snapshot.sidePanelPadding;
     }
 
     public Integer getChargeDiameter() {
-        return Integer.parseInt(props.getProperty("charge.diameter"));
+        return snapshot.chargeDiameter;
     }
 
     public Float getChargeRadius() {
-        return Float.parseFloat(props.getProperty("charge.radius"));
+        return snapshot.chargeRadius;
     }
 
     public Integer getTestChargeDiameter() {
-        return Integer.parseInt(props.getProperty("test.charge.diameter"));
+        return snapshot.testChargeDiameter;
     }
 
     public Float getTestChargeRadius() {
-        return Float.parseFloat(props.getProperty("test.charge.radius"));
+        return snapshot.testChargeRadius;
+    }
+
+    // threads moving test charges; 0 uses the shared fork/join pool, 1 moves them on the calling thread
+    public Integer getTestChargesParallelism() {
+        return snapshot.testChargesParallelism;
+    }
+
+    // "euler", "verlet" or "rk4", see ParticleIntegrators
+    public String getTestChargesIntegrator() {
+        return snapshot.testChargesIntegrator;
+    }
+
+    // simulated time per test-charge step, in frames of the original one-step-per-frame motion
+    public Float getTestChargesTimestep() {
+        return snapshot.testChargesTimestep;
+    }
+
+    // most sub-steps a test-charge step is split into near a charge; 1 never splits
+    public Integer getTestChargesMaxSubsteps() {
+        return snapshot.testChargesMaxSubsteps;
+    }
+
+    // pixels a test charge may travel in one sub-step before the step is split further
+    public Float getTestChargesSubstepLength() {
+        return snapshot.testChargesSubstepLength;
+    }
+
+    // fixed physics steps per second of wall-clock time; each is one test.charges.timestep
+    public Float getPhysicsStepsPerSecond() {
+        return snapshot.physicsStepsPerSecond;
+    }
+
+    // most physics steps one frame runs to catch up; any further backlog is dropped
+    public Integer getPhysicsMaxStepsPerFrame() {
+        return snapshot.physicsMaxStepsPerFrame;
     }
 
     public Integer getPositiveChargeColor() {
-        return Long.decode(props.getProperty("positive.charge.color")).intValue();
+        return snapshot.positiveChargeColor;
     }
 
     public Integer getNegativeChargeColor() {
-        return Long.decode(props.getProperty("negative.charge.color")).intValue();
+        return snapshot.negativeChargeColor;
     }
 
     public Integer getNeutralChargeColor() {
-        return Long.decode(props.getProperty("neutral.charge.color")).intValue();
+        return snapshot.neutralChargeColor;
     }
 
     public Float getEquiLinesAccuracy() {
-        return Float.parseFloat(props.getProperty("equi.lines.accuracy"));
+        return snapshot.equiLinesAccuracy;
     }
 
     public Integer getEquiLinesLimit() {
-        return Integer.parseInt(props.getProperty("equi.lines.limit"));
+        return snapshot.equiLinesLimit;
+    }
+
+    // "trace" follows one equipotential from the click, "marching-squares" contours the voltage grid
+    public String getEquiLinesExtractor() {
+        return snapshot.equiLinesExtractor;
+    }
+
+    // volts between neighbouring lines of an equipotential family
+    public Float getEquiLinesSpacing() {
+        return snapshot.equiLinesSpacing;
+    }
+
+    // levels on each side of 0 V in an equipotential family
+    public Integer getEquiLinesFamilySize() {
+        return snapshot.equiLinesFamilySize;
     }
 
     public Integer getFieldLinesPerCoulomb() {
-        return Integer.parseInt(props.getProperty("field.lines.per.coulomb"));
+        return snapshot.fieldLinesPerCoulomb;
+    }
+
+    // threads tracing field lines; 0 uses the shared fork/join pool, 1 traces on the calling thread
+    public Integer getFieldLinesParallelism() {
+        return snapshot.fieldLinesParallelism;
+    }
+
+    // "euler" (fixed steps) or "rk45" (adaptive steps), see FieldLineConfig
+    public String getFieldLinesIntegrator() {
+        return snapshot.fieldLinesIntegrator;
+    }
+
+    // largest local position error, in pixels, an adaptive field line step may make
+    public Float getFieldLinesTolerance() {
+        return snapshot.fieldLinesTolerance;
     }
 
     public Float getFieldVectorScale() {
-        return Float.parseFloat(props.getProperty("field.vector.scale"));
+        return snapshot.fieldVectorScale;
+    }
+
+    public String getFieldEvaluator() {
+        return snapshot.fieldEvaluator;
+    }
+
+    public Float getBarnesHutTheta() {
+        return snapshot.barnesHutTheta;
+    }
+
+    public Integer getBarnesHutThreshold() {
+        return snapshot.barnesHutThreshold;
+    }
+
+    public Integer getFmmOrder() {
+        return snapshot.fmmOrder;
+    }
+
+    // source count times target count above which batch evaluations switch to the FMM engine
+    public Long getFmmThreshold() {
+        return snapshot.fmmThreshold;
+    }
+
+    // incremental voltage-map updates allowed between two full recomputes
+    public Integer getVoltageFullRecomputeInterval() {
+        return snapshot.voltageFullRecomputeInterval;
+    }
+
+    // volts a tile's voltages may drift from its colours before the colours are recomputed
+    public Float getVoltageTileTolerance() {
+        return snapshot.voltageTileTolerance;
+    }
+
+    // cells per coarse sample, in each direction, of the preview rendered while a charge is dragged
+    public Integer getVoltageCoarseFactor() {
+        return snapshot.voltageCoarseFactor;
+    }
+
+    // charge-cell evaluations per frame spent refining the preview back to full resolution
+    public Long getVoltageRefineBudget() {
+        return snapshot.voltageRefineBudget;
     }
 }
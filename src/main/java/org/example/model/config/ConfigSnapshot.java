@@ -0,0 +1,99 @@
+package org.example.model.config;
+
+import java.util.Properties;
+
+// Every setting parsed once into a primitive field. ConfigManager builds a new snapshot whenever a setting
+// changes; hot loops take ConfigManager.getInstance().snapshot() once per computation and read its fields
+// instead of calling the getters, which box.
+public final class ConfigSnapshot {
+    // bumped for every change, so a computation can tell it ran with outdated settings
+    public final long version;
+
+    public final float coulombsConstant;
+    public final float testChargeCharge;
+    public final float pointChargeMaxValue;
+    public final float pointChargeMinValue;
+    public final float chargeIncrementDelta;
+    public final float gridSize;
+    public final int sidePanelWidth;
+    public final int sidePanelPadding;
+    public final int chargeDiameter;
+    public final float chargeRadius;
+    public final int testChargeDiameter;
+    public final float testChargeRadius;
+    public final int testChargesParallelism;
+    public final String testChargesIntegrator;
+    public final float testChargesTimestep;
+    public final int testChargesMaxSubsteps;
+    public final float testChargesSubstepLength;
+    public final float physicsStepsPerSecond;
+    public final int physicsMaxStepsPerFrame;
+    public final int positiveChargeColor;
+    public final int negativeChargeColor;
+    public final int neutralChargeColor;
+    public final float equiLinesAccuracy;
+    public final int equiLinesLimit;
+    public final String equiLinesExtractor;
+    public final float equiLinesSpacing;
+    public final int equiLinesFamilySize;
+    public final int fieldLinesPerCoulomb;
+    public final int fieldLinesParallelism;
+    public final String fieldLinesIntegrator;
+    public final float fieldLinesTolerance;
+    public final float fieldVectorScale;
+    public final String fieldEvaluator;
+    public final float barnesHutTheta;
+    public final int barnesHutThreshold;
+    public final int fmmOrder;
+    public final long fmmThreshold;
+    public final int voltageFullRecomputeInterval;
+    public final float voltageTileTolerance;
+    public final int voltageCoarseFactor;
+    public final long voltageRefineBudget;
+
+    // Throws NumberFormatException (or NullPointerException for a missing key) if a value doesn't parse.
+    ConfigSnapshot(Properties props, long version) {
+        this.version = version;
+        coulombsConstant = Float.parseFloat(props.getProperty("coulombs.constant"));
+        testChargeCharge = Float.parseFloat(props.getProperty("test.charge.charge"));
+        pointChargeMaxValue = Float.parseFloat(props.getProperty("point.charge.max.value"));
+        pointChargeMinValue = Float.parseFloat(props.getProperty("point.charge.min.value"));
+        chargeIncrementDelta = Float.parseFloat(props.getProperty("charge.increment.delta"));
+        gridSize = Float.parseFloat(props.getProperty("grid.size"));
+        sidePanelWidth = Integer.parseInt(props.getProperty("side.panel.width"));
+        sidePanelPadding = Integer.parseInt(props.getProperty("side.panel.padding"));
+        chargeDiameter = Integer.parseInt(props.getProperty("charge.diameter"));
+        chargeRadius = Float.parseFloat(props.getProperty("charge.radius"));
+        testChargeDiameter = Integer.parseInt(props.getProperty("test.charge.diameter"));
+        testChargeRadius = Float.parseFloat(props.getProperty("test.charge.radius"));
+        testChargesParallelism = Integer.parseInt(props.getProperty("test.charges.parallelism"));
+        testChargesIntegrator = props.getProperty("test.charges.integrator");
+        testChargesTimestep = Float.parseFloat(props.getProperty("test.charges.timestep"));
+        testChargesMaxSubsteps = Integer.parseInt(props.getProperty("test.charges.max.substeps"));
+        testChargesSubstepLength = Float.parseFloat(props.getProperty("test.charges.substep.length"));
+        physicsStepsPerSecond = Float.parseFloat(props.getProperty("physics.steps.per.second"));
+        physicsMaxStepsPerFrame = Integer.parseInt(props.getProperty("physics.max.steps.per.frame"));
+        positiveChargeColor = Long.decode(props.getProperty("positive.charge.color")).intValue();
+        negativeChargeColor = Long.decode(props.getProperty("negative.charge.color")).intValue();
+        neutralChargeColor = Long.decode(props.getProperty("neutral.charge.color")).intValue();
+        equiLinesAccuracy = Float.parseFloat(props.getProperty("equi.lines.accuracy"));
+        equiLinesLimit = Integer.parseInt(props.getProperty("equi.lines.limit"));
+        equiLinesExtractor = props.getProperty("equi.lines.extractor");
+        equiLinesSpacing = Float.parseFloat(props.getProperty("equi.lines.spacing"));
+        equiLinesFamilySize = Integer.parseInt(props.getProperty("equi.lines.family.size"));
+        fieldLinesPerCoulomb = Integer.parseInt(props.getProperty("field.lines.per.coulomb"));
+        fieldLinesParallelism = Integer.parseInt(props.getProperty("field.lines.parallelism"));
+        fieldLinesIntegrator = props.getProperty("field.lines.integrator");
+        fieldLinesTolerance = Float.parseFloat(props.getProperty("field.lines.tolerance"));
+        fieldVectorScale = Float.parseFloat(props.getProperty("field.vector.scale"));
+        fieldEvaluator = props.getProperty("field.evaluator");
+        barnesHutTheta = Float.parseFloat(props.getProperty("barnes.hut.theta"));
+        barnesHutThreshold = Integer.parseInt(props.getProperty("barnes.hut.threshold"));
+        fmmOrder = Integer.parseInt(props.getProperty("fmm.order"));
+        fmmThreshold = Long.parseLong(props.getProperty("fmm.threshold"));
+        voltageFullRecomputeInterval = Integer.parseInt(props.getProperty("voltage.full.recompute.interval"));
+        voltageTileTolerance = Float.parseFloat(props.getProperty("voltage.tile.tolerance"));
+        voltageCoarseFactor = Integer.parseInt(props.getProperty("voltage.coarse.factor"));
+        voltageRefineBudget = Long.parseLong(props.getProperty("voltage.refine.budget"));
+    }
+}
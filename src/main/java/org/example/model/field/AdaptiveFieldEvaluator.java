@@ -0,0 +1,32 @@
+package org.example.model.field;
+
+import org.example.model.ChargeStore;
+
+// Uses the exact backend for small scenes and switches to the approximate one once the number of
+// charges reaches the threshold, so the everyday presets stay exact while 10k+ charge scenes stay
+// interactive.
+public class AdaptiveFieldEvaluator implements FieldEvaluator {
+    private final FieldEvaluator exact;
+    private final FieldEvaluator approximate;
+    private final int threshold;
+
+    public AdaptiveFieldEvaluator(FieldEvaluator exact, FieldEvaluator approximate, int threshold) {
+        this.exact = exact;
+        this.approximate = approximate;
+        this.threshold = threshold;
+    }
+
+    private FieldEvaluator select(ChargeStore charges) {
+        return charges.size() >= threshold ? approximate : exact;
+    }
+
+    @Override
+    public void forceAt(ChargeStore charges, float x, float y, float[] out) {
+        select(charges).forceAt(charges, x, y, out);
+    }
+
+    @Override
+    public float voltageAt(ChargeStore charges, float x, float y) {
+        return select(charges).voltageAt(charges, x, y);
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.model.field;
+
+import org.example.model.ChargeStore;
+import org.example.model.config.ConfigManager;
+
+import java.util.Arrays;
+
+import static org.example.model.CommonMath.*;
+
+// Barnes–Hut approximation: charges are bucketed into a quadtree and any cell that looks small from
+// the query point (cell size < theta * distance) is replaced by its aggregate charge. Positive and
+// negative charge are aggregated separately, each at its own centre, so dipole-heavy cells whose net
+// charge cancels are still represented. theta = 0 degenerates to the exact sum.
+//
+// The tree is rebuilt lazily whenever the store's version changes; queries are allocation-free.
+public class BarnesHutEvaluator implements FieldEvaluator {
+    private static final int LEAF_CAPACITY = 8;
+    private static final int MAX_DEPTH = 24;
+
+    private final float theta;
+    private volatile Tree tree;
+
+    public BarnesHutEvaluator() {
+        this(ConfigManager.getInstance().getBarnesHutTheta());
+    }
+
+    public BarnesHutEvaluator(float theta) {
+        this.theta = theta;
+    }
+
+    public float getTheta() {
+        return theta;
+    }
+
+    @Override
+    public void forceAt(ChargeStore charges, float x, float y, float[] out) {
+        Tree t = treeFor(charges);
+        out[FORCE_X] = 0f;
+        out[FORCE_Y] = 0f;
+        if (t.nodeCount > 0) {
+            t.accumulateForce(0, x, y, theta * theta, out);
+        }
+        float k = ConfigManager.getInstance().snapshot().coulombsConstant;
+        out[FORCE_X] *= k;
+        out[FORCE_Y] *= k;
+    }
+
+    @Override
+    public float voltageAt(ChargeStore charges, float x, float y) {
+        Tree t = treeFor(charges);
+        float voltage = t.nodeCount > 0 ? t.accumulateVoltage(0, x, y, theta * theta) : 0f;
+        return ConfigManager.getInstance().snapshot().coulombsConstant * voltage;
+    }
+
+    // Returns a tree matching the store's current version, rebuilding it if the charges changed. Keyed on
+    // the version alone: the live store and the copies handed to the worker and the equipotential tracer
+    // share it, so queries from those threads don't keep rebuilding the tree for each other.
+    private Tree treeFor(ChargeStore charges) {
+        Tree t = tree;
+        if (t == null || t.version != charges.getVersion()) {
+            synchronized (this) {
+                t = tree;
+                if (t == null || t.version != charges.getVersion()) {
+                    t = new Tree(charges);
+                    tree = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    private static final class Tree {
+        final long version;
+
+        // charges copied in tree order so each leaf is a contiguous run
+        final float[] px, py, pq;
+
+        int nodeCount;
+        float[] cx = new float[64], cy = new float[64], half = new float[64];
+        int[] firstChild = new int[64], start = new int[64], count = new int[64];
+        // positive and negative aggregates: total charge and charge-weighted centre
+        float[] posQ = new float[64], posX = new float[64], posY = new float[64];
+        float[] negQ = new float[64], negX = new float[64], negY = new float[64];
+
+        Tree(ChargeStore charges) {
+            this.version = charges.getVersion();
+            int n = charges.size();
+            px = Arrays.copyOf(charges.getXs(), n);
+            py = Arrays.copyOf(charges.getYs(), n);
+            pq = Arrays.copyOf(charges.getQs(), n);
+            if (n == 0) return;
+
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                minX = Math.min(minX, px[i]);
+                minY = Math.min(minY, py[i]);
+                maxX = Math.max(maxX, px[i]);
+                maxY = Math.max(maxY, py[i]);
+            }
+            float h = Math.max(maxX - minX, maxY - minY) / 2f + 1f;
+            int root = newNode((minX + maxX) / 2f, (minY + maxY) / 2f, h, 0, n);
+            build(root, 0, new float[3 * n]);
+        }
+
+        private int newNode(float x, float y, float h, int from, int size) {
+            if (nodeCount == cx.length) {
+                int capacity = nodeCount * 2;
+                cx = Arrays.copyOf(cx, capacity);
+                cy = Arrays.copyOf(cy, capacity);
+                half = Arrays.copyOf(half, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                start = Arrays.copyOf(start, capacity);
+                count = Arrays.copyOf(count, capacity);
+                posQ = Arrays.copyOf(posQ, capacity);
+                posX = Arrays.copyOf(posX, capacity);
+                posY = Arrays.copyOf(posY, capacity);
+                negQ = Arrays.copyOf(negQ, capacity);
+                negX = Arrays.copyOf(negX, capacity);
+                negY = Arrays.copyOf(negY, capacity);
+            }
+            int node = nodeCount++;
+            cx[node] = x;
+            cy[node] = y;
+            half[node] = h;
+            start[node] = from;
+            count[node] = size;
+            firstChild[node] = -1;
+            return node;
+        }
+
+        // Splits the node's charge range into quadrants (reordering px/py/pq in place) and fills aggregates.
+        private void build(int node, int depth, float[] scratch) {
+            int from = start[node], size = count[node];
+
+            float pq0 = 0f, px0 = 0f, py0 = 0f, nq0 = 0f, nx0 = 0f, ny0 = 0f;
+            for (int i = from; i < from + size; i++) {
+                float q = pq[i];
+                if (q > 0f) {
+                    pq0 += q;
+                    px0 += q * px[i];
+                    py0 += q * py[i];
+                } else if (q < 0f) {
+                    nq0 += q;
+                    nx0 += q * px[i];
+                    ny0 += q * py[i];
+                }
+            }
+            posQ[node] = pq0;
+            posX[node] = pq0 != 0f ? px0 / pq0 : cx[node];
+            posY[node] = pq0 != 0f ? py0 / pq0 : cy[node];
+            negQ[node] = nq0;
+            negX[node] = nq0 != 0f ? nx0 / nq0 : cx[node];
+            negY[node] = nq0 != 0f ? ny0 / nq0 : cy[node];
+
+            if (size <= LEAF_CAPACITY || depth >= MAX_DEPTH) return;
+
+            // bucket the range by quadrant: 0 = top-left, 1 = top-right, 2 = bottom-left, 3 = bottom-right
+            float midX = cx[node], midY = cy[node];
+            int[] quadrantSize = new int[4];
+            for (int i = from; i < from + size; i++) {
+                quadrantSize[quadrant(px[i], py[i], midX, midY)]++;
+            }
+            int[] offset = {0, quadrantSize[0], quadrantSize[0] + quadrantSize[1], quadrantSize[0] + quadrantSize[1] + quadrantSize[2]};
+            int[] cursor = offset.clone();
+            for (int i = from; i < from + size; i++) {
+                int slot = 3 * cursor[quadrant(px[i], py[i], midX, midY)]++;
+                scratch[slot] = px[i];
+                scratch[slot + 1] = py[i];
+                scratch[slot + 2] = pq[i];
+            }
+            for (int i = 0; i < size; i++) {
+                px[from + i] = scratch[3 * i];
+                py[from + i] = scratch[3 * i + 1];
+                pq[from + i] = scratch[3 * i + 2];
+            }
+
+            float h = half[node] / 2f;
+            int first = -1;
+            for (int quad = 0; quad < 4; quad++) {
+                float childX = (quad & 1) == 0 ? midX - h : midX + h;
+                float childY = (quad & 2) == 0 ? midY - h : midY + h;
+                int child = newNode(childX, childY, h, from + offset[quad], quadrantSize[quad]);
+                if (first < 0) first = child;
+            }
+            firstChild[node] = first;
+            for (int quad = 0; quad < 4; quad++) {
+                if (count[first + quad] > 0) {
+                    build(first + quad, depth + 1, scratch);
+                }
+            }
+        }
+
+        private static int quadrant(float x, float y, float midX, float midY) {
+            return (x < midX ? 0 : 1) | (y < midY ? 0 : 2);
+        }
+
+        // true if the node is far enough from (x, y) to be treated as its aggregates
+        private boolean isFar(int node, float x, float y, float thetaSq) {
+            float dx = cx[node] - x, dy = cy[node] - y;
+            float size = 2f * half[node];
+            return size * size < thetaSq * (dx * dx + dy * dy);
+        }
+
+        void accumulateForce(int node, float x, float y, float thetaSq, float[] out) {
+            if (count[node] == 0) return;
+            if (firstChild[node] < 0) {
+                for (int i = start[node], end = i + count[node]; i < end; i++) {
+                    addForce(px[i], py[i], pq[i], x, y, out);
+                }
+            } else if (isFar(node, x, y, thetaSq)) {
+                addForce(posX[node], posY[node], posQ[node], x, y, out);
+                addForce(negX[node], negY[node], negQ[node], x, y, out);
+            } else {
+                int first = firstChild[node];
+                for (int quad = 0; quad < 4; quad++) {
+                    accumulateForce(first + quad, x, y, thetaSq, out);
+                }
+            }
+        }
+
+        float accumulateVoltage(int node, float x, float y, float thetaSq) {
+            if (count[node] == 0) return 0f;
+            float voltage = 0f;
+            if (firstChild[node] < 0) {
+                for (int i = start[node], end = i + count[node]; i < end; i++) {
+                    voltage += voltage(px[i], py[i], pq[i], x, y);
+                }
+            } else if (isFar(node, x, y, thetaSq)) {
+                voltage += voltage(posX[node], posY[node], posQ[node], x, y);
+                voltage += voltage(negX[node], negY[node], negQ[node], x, y);
+            } else {
+                int first = firstChild[node];
+                for (int quad = 0; quad < 4; quad++) {
+                    voltage += accumulateVoltage(first + quad, x, y, thetaSq);
+                }
+            }
+            return voltage;
+        }
+
+        // q / r^2 towards the source, without the Coulomb constant
+        private static void addForce(float sx, float sy, float q, float x, float y, float[] out) {
+            if (q == 0f) return;
+            float dx = sx - x, dy = sy - y;
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
+            if (d > 0f) {
+                float r = d < MIN_DISTANCE ? MIN_DISTANCE : d;
+                float s = q / (r * r * d);
+                out[FORCE_X] += dx * s;
+                out[FORCE_Y] += dy * s;
+            }
+        }
+
+        private static float voltage(float sx, float sy, float q, float x, float y) {
+            float dx = sx - x, dy = sy - y;
+            float r = (float) Math.sqrt(dx * dx + dy * dy);
+            if (r < MIN_DISTANCE) r = MIN_DISTANCE;
+            return q / r;
+        }
+    }
+}
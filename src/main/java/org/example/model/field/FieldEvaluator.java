@@ -0,0 +1,13 @@
+package org.example.model.field;
+
+import org.example.model.ChargeStore;
+
+// Strategy for evaluating the net force and voltage of a set of point charges.
+// Implementations must not allocate per call; results go into caller-supplied slots.
+public interface FieldEvaluator {
+
+    // Net force at (x, y) written into out[CommonMath.FORCE_X] and out[CommonMath.FORCE_Y].
+    void forceAt(ChargeStore charges, float x, float y, float[] out);
+
+    float voltageAt(ChargeStore charges, float x, float y);
+}
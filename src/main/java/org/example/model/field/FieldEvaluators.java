@@ -0,0 +1,76 @@
+package org.example.model.field;
+
+import org.example.model.config.ConfigManager;
+import org.example.model.config.ConfigSnapshot;
+
+// Picks the field evaluation backend from the "field.evaluator" setting.
+public final class FieldEvaluators {
+    public static final String AUTO = "auto";
+    public static final String SCALAR = "scalar";
+    public static final String VECTOR = "vector";
+    public static final String BARNES_HUT = "barnes-hut";
+
+    private static final String VECTOR_EVALUATOR_CLASS = "org.example.model.field.VectorFieldEvaluator";
+
+    // the default evaluator and the settings it was created from
+    private record Default(String name, float theta, int threshold, FieldEvaluator evaluator) {
+        boolean isFor(ConfigSnapshot settings) {
+            return name.equals(settings.fieldEvaluator) && theta == settings.barnesHutTheta
+                    && threshold == settings.barnesHutThreshold;
+        }
+    }
+
+    private static volatile Default defaultEvaluator;
+
+    private FieldEvaluators() {}
+
+    // The evaluator for the current settings; the same instance until field.evaluator or barnes.hut.*
+    // change, so callers can compare it by identity to tell whether their cached geometry still holds.
+    public static FieldEvaluator getDefault() {
+        ConfigSnapshot settings = ConfigManager.getInstance().snapshot();
+        Default d = defaultEvaluator;
+        if (d == null || !d.isFor(settings)) {
+            synchronized (FieldEvaluators.class) {
+                d = defaultEvaluator;
+                if (d == null || !d.isFor(settings)) {
+                    d = new Default(settings.fieldEvaluator, settings.barnesHutTheta, settings.barnesHutThreshold,
+                            create(settings.fieldEvaluator));
+                    defaultEvaluator = d;
+                }
+            }
+        }
+        return d.evaluator();
+    }
+
+    // "vector" prefers the SIMD backend and quietly falls back to the scalar loop when
+    // jdk.incubator.vector is not on the module path. "auto" does the same but hands scenes with
+    // at least barnes.hut.threshold charges to the Barnes–Hut approximation.
+    public static FieldEvaluator create(String name) {
+        if (SCALAR.equals(name)) {
+            return new ScalarFieldEvaluator();
+        }
+        if (BARNES_HUT.equals(name)) {
+            return new BarnesHutEvaluator();
+        }
+        FieldEvaluator vector = createVectorEvaluator();
+        FieldEvaluator direct = vector != null ? vector : new ScalarFieldEvaluator();
+        if (VECTOR.equals(name)) {
+            return direct;
+        }
+        return new AdaptiveFieldEvaluator(direct, new BarnesHutEvaluator(),
+                ConfigManager.getInstance().getBarnesHutThreshold());
+    }
+
+    public static boolean isVectorApiAvailable() {
+        return createVectorEvaluator() != null;
+    }
+
+    // Loaded reflectively so this class still links when the incubator module is absent.
+    private static FieldEvaluator createVectorEvaluator() {
+        try {
+            return (FieldEvaluator) Class.forName(VECTOR_EVALUATOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package org.example.model.field;
+
+import org.example.model.ChargeStore;
+import org.example.model.config.ConfigManager;
+
+import java.util.Arrays;
+
+import static org.example.model.CommonMath.MIN_DISTANCE;
+
+// Fast multipole method for evaluating the voltage and force of N charges at M target points in
+// O(N + M). The simulation's potential is the Coulomb K q / r, so the expansions are Cartesian
+// Taylor series of 1 / r in the plane (multipole moments M_a, local coefficients L_b, multi-indices
+// a = (a1, a2) with a1 + a2 <= order) rather than complex logarithms, which only fit a 2D log kernel.
+//
+// Boxes live on a uniform quadtree: P2M at the leaves, M2M up, M2L between well-separated boxes
+// (children of the parent's neighbours that are not neighbours), L2L down, then L2P plus a direct
+// sum over the 3x3 neighbouring leaves for each target. Higher orders trade speed for accuracy.
+//
+// Workspace arrays are reused between calls, so evaluate() is synchronized.
+public class FmmEngine {
+    private static final int MIN_LEVEL = 2;
+    private static final int MAX_LEVEL = 7;
+
+    private final int order;
+    // number of multi-indices with |a| <= order, and with |a| <= 2 * order for the M2L kernel
+    private final int terms;
+    private final int kernelTerms;
+    private final int[] powX, powY;
+    private final double[][] binomial;
+    // M2L as a flat list of (beta, alpha) pairs: L[beta] += pairScale * T[pairKernel] * M[alpha]
+    private final int[] pairBeta, pairAlpha, pairKernel;
+    private final double[] pairScale;
+
+    // workspace reused between calls
+    private double[] multipoles = new double[0];
+    private double[] locals = new double[0];
+    private int[] leafStart = new int[0];
+    private int[] targetStart = new int[0];
+    private int[] targetOrder = new int[0];
+    private int[] leafOf = new int[0];
+    private float[] sortedX = new float[0], sortedY = new float[0], sortedQ = new float[0];
+
+    public FmmEngine() {
+        this(ConfigManager.getInstance().getFmmOrder());
+    }
+
+    public FmmEngine(int order) {
+        if (order < 1) {
+            throw new IllegalArgumentException("FMM expansion order must be at least 1, got " + order);
+        }
+        this.order = order;
+        this.terms = termCount(order);
+        this.kernelTerms = termCount(2 * order);
+
+        powX = new int[kernelTerms];
+        powY = new int[kernelTerms];
+        for (int n = 0; n <= 2 * order; n++) {
+            for (int a2 = 0; a2 <= n; a2++) {
+                int i = index(n - a2, a2);
+                powX[i] = n - a2;
+                powY[i] = a2;
+            }
+        }
+
+        binomial = new double[2 * order + 1][2 * order + 1];
+        for (int n = 0; n <= 2 * order; n++) {
+            binomial[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                binomial[n][k] = binomial[n - 1][k - 1] + (k <= n - 1 ? binomial[n - 1][k] : 0);
+            }
+        }
+
+        pairBeta = new int[terms * terms];
+        pairAlpha = new int[terms * terms];
+        pairKernel = new int[terms * terms];
+        pairScale = new double[terms * terms];
+        int p = 0;
+        for (int b = 0; b < terms; b++) {
+            for (int a = 0; a < terms; a++) {
+                pairBeta[p] = b;
+                pairAlpha[p] = a;
+                pairKernel[p] = index(powX[a] + powX[b], powY[a] + powY[b]);
+                pairScale[p] = binomial[powX[a] + powX[b]][powX[a]] * binomial[powY[a] + powY[b]][powY[a]];
+                p++;
+            }
+        }
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    private static int termCount(int n) {
+        return (n + 1) * (n + 2) / 2;
+    }
+
+    // multi-indices are stored by total degree: (0,0), (1,0), (0,1), (2,0), (1,1), (0,2), ...
+    private static int index(int a1, int a2) {
+        int n = a1 + a2;
+        return n * (n + 1) / 2 + a2;
+    }
+
+    // Voltage and/or force of the sources at targetCount targets; pass null for outputs you don't need.
+    public synchronized void evaluate(ChargeStore sources, float[] targetX, float[] targetY, int targetCount,
+                                      float[] voltage, float[] forceX, float[] forceY) {
+        float k = ConfigManager.getInstance().snapshot().coulombsConstant;
+        int n = sources.size();
+        if (n == 0 || targetCount == 0) {
+            for (int t = 0; t < targetCount; t++) {
+                if (voltage != null) voltage[t] = 0f;
+                if (forceX != null) forceX[t] = 0f;
+                if (forceY != null) forceY[t] = 0f;
+            }
+            return;
+        }
+        float[] xs = sources.getXs(), ys = sources.getYs(), qs = sources.getQs();
+
+        // square domain covering sources and targets
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        for (int t = 0; t < targetCount; t++) {
+            minX = Math.min(minX, targetX[t]);
+            maxX = Math.max(maxX, targetX[t]);
+            minY = Math.min(minY, targetY[t]);
+            maxY = Math.max(maxY, targetY[t]);
+        }
+        double size = Math.max(maxX - minX, maxY - minY) * 1.0001 + 1.0;
+        double originX = minX, originY = minY;
+
+        int levels = chooseLevels(n, targetCount);
+        int side = 1 << levels;
+        double leafWidth = size / side;
+
+        int[] levelOffset = new int[levels + 1];
+        int totalBoxes = 0;
+        for (int l = 0; l <= levels; l++) {
+            levelOffset[l] = totalBoxes;
+            totalBoxes += 1 << (2 * l);
+        }
+        if (multipoles.length < totalBoxes * terms) {
+            multipoles = new double[totalBoxes * terms];
+            locals = new double[totalBoxes * terms];
+        } else {
+            Arrays.fill(multipoles, 0, totalBoxes * terms, 0.0);
+            Arrays.fill(locals, 0, totalBoxes * terms, 0.0);
+        }
+
+        binSources(xs, ys, qs, n, originX, originY, leafWidth, side);
+
+        // P2M
+        double[] powWx = new double[order + 1], powWy = new double[order + 1];
+        int leafOffset = levelOffset[levels];
+        for (int box = 0; box < side * side; box++) {
+            double cx = originX + ((box % side) + 0.5) * leafWidth;
+            double cy = originY + ((box / side) + 0.5) * leafWidth;
+            int base = (leafOffset + box) * terms;
+            for (int j = leafStart[box]; j < leafStart[box + 1]; j++) {
+                powers(cx - sortedX[j], cy - sortedY[j], powWx, powWy);
+                double q = sortedQ[j];
+                for (int a = 0; a < terms; a++) {
+                    multipoles[base + a] += q * powWx[powX[a]] * powWy[powY[a]];
+                }
+            }
+        }
+
+        // M2M
+        double[] powDx = new double[order + 1], powDy = new double[order + 1];
+        for (int l = levels; l > MIN_LEVEL; l--) {
+            int childSide = 1 << l;
+            double childWidth = size / childSide;
+            for (int box = 0; box < childSide * childSide; box++) {
+                int bx = box % childSide, by = box / childSide;
+                int parent = (by / 2) * (childSide / 2) + bx / 2;
+                // child centre minus parent centre is (+-w/2, +-w/2); the moments use -d
+                double dx = (bx % 2 == 0 ? 0.5 : -0.5) * childWidth;
+                double dy = (by % 2 == 0 ? 0.5 : -0.5) * childWidth;
+                powers(dx, dy, powDx, powDy);
+                int from = (levelOffset[l] + box) * terms;
+                int to = (levelOffset[l - 1] + parent) * terms;
+                for (int a = 0; a < terms; a++) {
+                    double sum = 0;
+                    int ax = powX[a], ay = powY[a];
+                    for (int c = 0; c < terms; c++) {
+                        int cxp = powX[c], cyp = powY[c];
+                        if (cxp > ax || cyp > ay) continue;
+                        sum += binomial[ax][cxp] * binomial[ay][cyp] * multipoles[from + c] * powDx[ax - cxp] * powDy[ay - cyp];
+                    }
+                    multipoles[to + a] += sum;
+                }
+            }
+        }
+
+        // M2L, with the 1/r Taylor coefficients precomputed for every offset in box units
+        double[][] unitKernel = new double[49][];
+        for (int oy = -3; oy <= 3; oy++) {
+            for (int ox = -3; ox <= 3; ox++) {
+                if (Math.abs(ox) > 1 || Math.abs(oy) > 1) {
+                    unitKernel[(oy + 3) * 7 + ox + 3] = taylorCoefficients(ox, oy);
+                }
+            }
+        }
+        double[] kernel = new double[kernelTerms];
+        for (int l = MIN_LEVEL; l <= levels; l++) {
+            int levelSide = 1 << l;
+            double width = size / levelSide;
+            double[] scale = new double[2 * order + 1];
+            for (int d = 0; d <= 2 * order; d++) {
+                scale[d] = Math.pow(width, -(d + 1));
+            }
+            for (int box = 0; box < levelSide * levelSide; box++) {
+                int bx = box % levelSide, by = box / levelSide;
+                int targetBase = (levelOffset[l] + box) * terms;
+                int px = bx / 2, py = by / 2;
+                for (int ny = 2 * (py - 1); ny <= 2 * (py + 1) + 1; ny++) {
+                    if (ny < 0 || ny >= levelSide) continue;
+                    for (int nx = 2 * (px - 1); nx <= 2 * (px + 1) + 1; nx++) {
+                        if (nx < 0 || nx >= levelSide) continue;
+                        int ox = bx - nx, oy = by - ny;
+                        if (Math.abs(ox) <= 1 && Math.abs(oy) <= 1) continue;
+                        int sourceBase = (levelOffset[l] + ny * levelSide + nx) * terms;
+                        double[] unit = unitKernel[(oy + 3) * 7 + ox + 3];
+                        for (int g = 0; g < kernelTerms; g++) {
+                            kernel[g] = unit[g] * scale[powX[g] + powY[g]];
+                        }
+                        for (int p = 0; p < pairBeta.length; p++) {
+                            locals[targetBase + pairBeta[p]] += pairScale[p] * kernel[pairKernel[p]] * multipoles[sourceBase + pairAlpha[p]];
+                        }
+                    }
+                }
+            }
+        }
+
+        // L2L
+        for (int l = MIN_LEVEL + 1; l <= levels; l++) {
+            int childSide = 1 << l;
+            double childWidth = size / childSide;
+            for (int box = 0; box < childSide * childSide; box++) {
+                int bx = box % childSide, by = box / childSide;
+                int parent = (by / 2) * (childSide / 2) + bx / 2;
+                // child centre minus parent centre
+                double ex = (bx % 2 == 0 ? -0.5 : 0.5) * childWidth;
+                double ey = (by % 2 == 0 ? -0.5 : 0.5) * childWidth;
+                powers(ex, ey, powDx, powDy);
+                int from = (levelOffset[l - 1] + parent) * terms;
+                int to = (levelOffset[l] + box) * terms;
+                for (int b = 0; b < terms; b++) {
+                    int bxp = powX[b], byp = powY[b];
+                    double sum = 0;
+                    for (int c = 0; c < terms; c++) {
+                        int cxp = powX[c], cyp = powY[c];
+                        if (cxp < bxp || cyp < byp) continue;
+                        sum += binomial[cxp][bxp] * binomial[cyp][byp] * locals[from + c] * powDx[cxp - bxp] * powDy[cyp - byp];
+                    }
+                    locals[to + b] += sum;
+                }
+            }
+        }
+
+        // L2P plus the near field, one leaf at a time so the neighbouring sources stay in cache
+        binTargets(targetX, targetY, targetCount, originX, originY, leafWidth, side);
+        double[] powUx = new double[order + 1], powUy = new double[order + 1];
+        for (int leaf = 0; leaf < side * side; leaf++) {
+            int bx = leaf % side, by = leaf / side;
+            double cx = originX + (bx + 0.5) * leafWidth;
+            double cy = originY + (by + 0.5) * leafWidth;
+            int base = (leafOffset + leaf) * terms;
+            int rowFrom = Math.max(0, by - 1), rowTo = Math.min(side - 1, by + 1);
+            int colFrom = Math.max(0, bx - 1), colTo = Math.min(side - 1, bx + 1);
+
+            for (int s = targetStart[leaf]; s < targetStart[leaf + 1]; s++) {
+                int t = targetOrder[s];
+                float x = targetX[t], y = targetY[t];
+                powers(x - cx, y - cy, powUx, powUy);
+                double v = 0, gx = 0, gy = 0;
+                for (int b = 0; b < terms; b++) {
+                    double coefficient = locals[base + b];
+                    int ex = powX[b], ey = powY[b];
+                    v += coefficient * powUx[ex] * powUy[ey];
+                    if (ex > 0) gx += ex * coefficient * powUx[ex - 1] * powUy[ey];
+                    if (ey > 0) gy += ey * coefficient * powUx[ex] * powUy[ey - 1];
+                }
+
+                // neighbouring leaves in a row are contiguous in the sorted sources
+                for (int ny = rowFrom; ny <= rowTo; ny++) {
+                    for (int j = leafStart[ny * side + colFrom], end = leafStart[ny * side + colTo + 1]; j < end; j++) {
+                        float dx = sortedX[j] - x, dy = sortedY[j] - y;
+                        float d = (float) Math.sqrt(dx * dx + dy * dy);
+                        float r = d < MIN_DISTANCE ? MIN_DISTANCE : d;
+                        v += sortedQ[j] / r;
+                        if (d > 0f) {
+                            double scale = sortedQ[j] / (r * r * d);
+                            gx += dx * scale;
+                            gy += dy * scale;
+                        }
+                    }
+                }
+
+                if (voltage != null) voltage[t] = (float) (k * v);
+                if (forceX != null) forceX[t] = (float) (k * gx);
+                if (forceY != null) forceY[t] = (float) (k * gy);
+            }
+        }
+    }
+
+    // Depth that balances the near field (each target visits the sources of 9 leaves) against the
+    // M2L translations (up to 27 per box, terms^2 operations each, over all levels).
+    private int chooseLevels(int sourceCount, int targetCount) {
+        int best = MIN_LEVEL;
+        double bestCost = Double.MAX_VALUE;
+        for (int l = MIN_LEVEL; l <= MAX_LEVEL; l++) {
+            double boxes = 1 << (2 * l);
+            double cost = 9.0 * targetCount * sourceCount / boxes + boxes * 4 / 3 * 27 * terms * terms;
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = l;
+            }
+        }
+        return best;
+    }
+
+    // Counting sort of the sources into leaf boxes (row-major), so each leaf is a contiguous run.
+    private void binSources(float[] xs, float[] ys, float[] qs, int n, double originX, double originY, double leafWidth, int side) {
+        int leaves = side * side;
+        if (leafStart.length < leaves + 1) {
+            leafStart = new int[leaves + 1];
+        } else {
+            Arrays.fill(leafStart, 0, leaves + 1, 0);
+        }
+        if (sortedX.length < n) {
+            sortedX = new float[n];
+            sortedY = new float[n];
+            sortedQ = new float[n];
+        }
+        if (leafOf.length < n) {
+            leafOf = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            int bx = Math.min(side - 1, (int) ((xs[i] - originX) / leafWidth));
+            int by = Math.min(side - 1, (int) ((ys[i] - originY) / leafWidth));
+            leafOf[i] = by * side + bx;
+            leafStart[leafOf[i] + 1]++;
+        }
+        for (int b = 0; b < leaves; b++) {
+            leafStart[b + 1] += leafStart[b];
+        }
+        int[] cursor = Arrays.copyOf(leafStart, leaves);
+        for (int i = 0; i < n; i++) {
+            int j = cursor[leafOf[i]]++;
+            sortedX[j] = xs[i];
+            sortedY[j] = ys[i];
+            sortedQ[j] = qs[i];
+        }
+    }
+
+    // Same counting sort for the targets, as a permutation so results land in the caller's order.
+    private void binTargets(float[] tx, float[] ty, int m, double originX, double originY, double leafWidth, int side) {
+        int leaves = side * side;
+        if (targetStart.length < leaves + 1) {
+            targetStart = new int[leaves + 1];
+        } else {
+            Arrays.fill(targetStart, 0, leaves + 1, 0);
+        }
+        if (targetOrder.length < m) {
+            targetOrder = new int[m];
+        }
+        if (leafOf.length < m) {
+            leafOf = new int[m];
+        }
+        for (int t = 0; t < m; t++) {
+            int bx = Math.min(side - 1, (int) ((tx[t] - originX) / leafWidth));
+            int by = Math.min(side - 1, (int) ((ty[t] - originY) / leafWidth));
+            leafOf[t] = by * side + bx;
+            targetStart[leafOf[t] + 1]++;
+        }
+        for (int b = 0; b < leaves; b++) {
+            targetStart[b + 1] += targetStart[b];
+        }
+        int[] cursor = Arrays.copyOf(targetStart, leaves);
+        for (int t = 0; t < m; t++) {
+            targetOrder[cursor[leafOf[t]]++] = t;
+        }
+    }
+
+    private void powers(double x, double y, double[] powersX, double[] powersY) {
+        powersX[0] = 1;
+        powersY[0] = 1;
+        for (int i = 1; i < powersX.length; i++) {
+            powersX[i] = powersX[i - 1] * x;
+            powersY[i] = powersY[i - 1] * y;
+        }
+    }
+
+    // T_g(R) = D^g (1/|R|) / g! for |g| <= 2 * order, via the recurrence
+    // n |R|^2 T_g = -(2n - 1) (Rx T_{g-e1} + Ry T_{g-e2}) - (n - 1) (T_{g-2e1} + T_{g-2e2})
+    private double[] taylorCoefficients(double rx, double ry) {
+        double[] t = new double[kernelTerms];
+        double r2 = rx * rx + ry * ry;
+        t[0] = 1 / Math.sqrt(r2);
+        for (int n = 1; n <= 2 * order; n++) {
+            for (int g2 = 0; g2 <= n; g2++) {
+                int g1 = n - g2;
+                double sum = 0;
+                if (g1 >= 1) sum += (2 * n - 1) * rx * t[index(g1 - 1, g2)];
+                if (g2 >= 1) sum += (2 * n - 1) * ry * t[index(g1, g2 - 1)];
+                if (g1 >= 2) sum += (n - 1) * t[index(g1 - 2, g2)];
+                if (g2 >= 2) sum += (n - 1) * t[index(g1, g2 - 2)];
+                t[index(g1, g2)] = -sum / (n * r2);
+            }
+        }
+        return t;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.model.field;
+
+import org.example.model.ChargeStore;
+import org.example.model.CommonMath;
+
+// Plain loop over the charge store; always available and used as the fallback.
+public class ScalarFieldEvaluator implements FieldEvaluator {
+
+    @Override
+    public void forceAt(ChargeStore charges, float x, float y, float[] out) {
+        CommonMath.forceAtPoint(x, y, charges, out);
+    }
+
+    @Override
+    public float voltageAt(ChargeStore charges, float x, float y) {
+        return CommonMath.voltageAtPoint(x, y, charges);
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.model.motion;
+
+// One time step of a test charge with unit mass. Forces are the gradient of the voltage, as
+// FieldEvaluator.forceAt returns them, so the acceleration is a = q E = -q * force. Implementations keep
+// no per-particle state and may be called from several threads at once.
+public interface ParticleIntegrator {
+    // slots of the state array
+    int X = 0;
+    int Y = 1;
+    int VX = 2;
+    int VY = 3;
+
+    // Advances state {x, y, vx, vy} by dt in place. force holds the force at (x, y) on entry. Returns true
+    // if force holds the force at the new position on exit, so the next step needn't evaluate it again;
+    // otherwise its contents are unspecified. field evaluates the force wherever else the method needs it.
+    boolean step(float[] state, float q, float[] force, float dt, ForceField field);
+
+    @FunctionalInterface
+    interface ForceField {
+        // Force at (x, y) written into out[CommonMath.FORCE_X] and out[CommonMath.FORCE_Y].
+        void forceAt(float x, float y, float[] out);
+    }
+}
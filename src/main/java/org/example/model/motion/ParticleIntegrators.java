@@ -0,0 +1,19 @@
+package org.example.model.motion;
+
+// Picks a test-charge integrator by the name used in the "test.charges.integrator" setting.
+public final class ParticleIntegrators {
+    public static final String EULER = "euler";
+    public static final String VERLET = "verlet";
+    public static final String RK4 = "rk4";
+
+    private ParticleIntegrators() {}
+
+    public static ParticleIntegrator create(String name) {
+        return switch (name) {
+            case EULER -> new SemiImplicitEulerIntegrator();
+            case VERLET -> new VelocityVerletIntegrator();
+            case RK4 -> new RungeKutta4Integrator();
+            default -> throw new IllegalArgumentException("Unknown test-charge integrator: " + name);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.model.motion;
+
+import static org.example.model.CommonMath.FORCE_X;
+import static org.example.model.CommonMath.FORCE_Y;
+
+// Velocity Verlet (kick-drift-kick leapfrog): second order and symplectic, with position and velocity
+// at the same time. The force it evaluates at the end of a step is the one the next step starts with,
+// so consecutive steps cost one evaluation each.
+public class VelocityVerletIntegrator implements ParticleIntegrator {
+
+    @Override
+    public boolean step(float[] state, float q, float[] force, float dt, ForceField field) {
+        float halfDt = 0.5f * dt;
+        state[VX] -= force[FORCE_X] * q * halfDt;
+        state[VY] -= force[FORCE_Y] * q * halfDt;
+        state[X] += state[VX] * dt;
+        state[Y] += state[VY] * dt;
+        field.forceAt(state[X], state[Y], force);
+        state[VX] -= force[FORCE_X] * q * halfDt;
+        state[VY] -= force[FORCE_Y] * q * halfDt;
+        return true;
+    }
+}
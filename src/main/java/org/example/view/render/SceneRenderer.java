@@ -0,0 +1,184 @@
+package org.example.view.render;
+
+import org.example.model.PointCharge;
+import org.example.model.SceneFile;
+import org.example.model.SimulationModel;
+import org.example.model.VoltageGrid;
+import org.example.model.config.ConfigManager;
+import org.example.view.ui.ControlPanel;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Draws scenes to images without a window. The simulation runs against an offscreen PApplet that is never
+// started, with its g swapped for a createGraphics canvas, so the model's own display code draws straight
+// into the image. Field lines, vectors, equipotentials and charges are computed at the scene's size and
+// drawn scaled to the output size, so they stay sharp at any resolution; the voltage map is evaluated
+// afresh at the output size rather than stretching the scene-sized one.
+public class SceneRenderer {
+
+    public enum Layer {
+        VOLTAGE, FIELD_VECTORS, FIELD_LINES, EQUIPOTENTIALS, GRID, CHARGES;
+
+        // "voltage", "field-lines", ...
+        public String id() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        public static Layer of(String id) {
+            for (Layer layer : values()) {
+                if (layer.id().equals(id)) return layer;
+            }
+            throw new IllegalArgumentException("Unknown layer " + id);
+        }
+    }
+
+    public static final Set<Layer> DEFAULT_LAYERS =
+            EnumSet.of(Layer.VOLTAGE, Layer.FIELD_VECTORS, Layer.FIELD_LINES, Layer.EQUIPOTENTIALS, Layer.CHARGES);
+
+    // Stands in for the window: the size the model lays the scene out on. It is never started, so it gets
+    // its primary graphics here; createGraphics() and the model's drawing calls all go through g.
+    static class Sketch extends PApplet {
+        Sketch(int width, int height) {
+            this.width = width;
+            this.height = height;
+            this.pixelWidth = width;
+            this.pixelHeight = height;
+            this.displayWidth = width;
+            this.displayHeight = height;
+
+            PGraphicsJava2D graphics = new PGraphicsJava2D();
+            graphics.setParent(this);
+            graphics.setPrimary(true);
+            graphics.setSize(width, height);
+            this.g = graphics;
+        }
+    }
+
+    private final int maxWidth, maxHeight;
+    private final Set<Layer> layers;
+    private final float voltageCellPixels;
+
+    // Scenes of the same size share one simulation, so its worker pools are not recreated per image.
+    private Sketch sketch;
+    private SimulationModel simulation;
+
+    // maxWidth / maxHeight: the image fits inside them keeping the scene's aspect ratio, 0 for no limit
+    // (both 0 renders at the scene's own size). voltageCellPixels: side of a voltage map cell in the
+    // output image, 0 for the on-screen cell size.
+    public SceneRenderer(int maxWidth, int maxHeight, Set<Layer> layers, float voltageCellPixels) {
+        if (maxWidth < 0 || maxHeight < 0) {
+            throw new IllegalArgumentException("Image size must not be negative: " + maxWidth + " x " + maxHeight);
+        }
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.layers = layers.isEmpty() ? EnumSet.noneOf(Layer.class) : EnumSet.copyOf(layers);
+        this.voltageCellPixels = voltageCellPixels > 0 ? voltageCellPixels : ConfigManager.getInstance().getGridSize() / 3;
+    }
+
+    // Output pixels per scene pixel.
+    public float scaleFor(SceneFile scene) {
+        float scale = Float.POSITIVE_INFINITY;
+        if (maxWidth > 0) scale = Math.min(scale, (float) maxWidth / scene.width());
+        if (maxHeight > 0) scale = Math.min(scale, (float) maxHeight / scene.height());
+        return Float.isInfinite(scale) ? 1f : scale;
+    }
+
+    public void write(SceneFile scene, Path png) throws IOException {
+        PGraphics image = render(scene);
+        if (!image.save(png.toAbsolutePath().toString())) {
+            throw new IOException("Could not write " + png);
+        }
+    }
+
+    public PGraphics render(SceneFile scene) {
+        float scale = scaleFor(scene);
+        int width = Math.max(1, Math.round(scene.width() * scale));
+        int height = Math.max(1, Math.round(scene.height() * scale));
+
+        SimulationModel simulation = simulationFor(scene);
+        scene.applyTo(simulation);
+
+        PGraphics canvas = sketch.createGraphics(width, height);
+        // the model draws through sketch.g, so point it at the canvas while this scene is drawn
+        PGraphics primary = sketch.g;
+        sketch.g = canvas;
+        try {
+            canvas.beginDraw();
+            canvas.background(0);
+            if (layers.contains(Layer.VOLTAGE)) {
+                canvas.image(voltageImage(simulation, width, height, scale), 0, 0);
+            }
+
+            canvas.pushMatrix();
+            canvas.scale(scale);
+            if (layers.contains(Layer.FIELD_VECTORS)) {
+                simulation.createFieldVectors();
+                simulation.displayFieldVectors(sketch);
+            }
+            if (layers.contains(Layer.FIELD_LINES)) {
+                simulation.createFieldLines();
+                simulation.displayFieldLines(sketch);
+            }
+            if (layers.contains(Layer.EQUIPOTENTIALS)) {
+                simulation.createEquipotentialFamily();
+                simulation.displayEquipotentialLines(sketch);
+            }
+            if (layers.contains(Layer.GRID)) {
+                simulation.displayGrid(sketch);
+            }
+            if (layers.contains(Layer.CHARGES)) {
+                for (PointCharge charge : simulation.getPointCharges()) {
+                    charge.display(sketch);
+                }
+            }
+            canvas.popMatrix();
+            canvas.endDraw();
+        } finally {
+            sketch.g = primary;
+        }
+        return canvas;
+    }
+
+    private SimulationModel simulationFor(SceneFile scene) {
+        if (sketch == null || sketch.width != scene.width() || sketch.height != scene.height()) {
+            sketch = new Sketch(scene.width(), scene.height());
+            ControlPanel controlPanel = new ControlPanel(sketch, null, true);
+            simulation = new SimulationModel(sketch, controlPanel);
+            controlPanel.setSimulation(simulation);
+        }
+        return simulation;
+    }
+
+    // The voltage map at the output resolution: one grid cell per voltageCellPixels square of the image.
+    private PImage voltageImage(SimulationModel simulation, int width, int height, float scale) {
+        int cols = (int) Math.ceil(width / voltageCellPixels);
+        int rows = (int) Math.ceil(height / voltageCellPixels);
+        VoltageGrid grid = new VoltageGrid(cols, rows, voltageCellPixels / scale);
+        grid.update(simulation.getChargeStore(), simulation.getFieldEvaluator(), false);
+        int[] colors = grid.getColors();
+
+        int[] pixelCol = new int[width];
+        for (int px = 0; px < width; px++) {
+            pixelCol[px] = Math.min(cols - 1, (int) (px / voltageCellPixels));
+        }
+        PImage image = new PImage(width, height, PConstants.ARGB);
+        image.loadPixels();
+        for (int py = 0; py < height; py++) {
+            int rowOffset = Math.min(rows - 1, (int) (py / voltageCellPixels)) * cols;
+            for (int px = 0; px < width; px++) {
+                image.pixels[py * width + px] = colors[rowOffset + pixelCol[px]];
+            }
+        }
+        image.updatePixels();
+        return image;
+    }
+}
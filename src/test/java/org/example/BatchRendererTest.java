@@ -0,0 +1,124 @@
+package org.example;
+
+import org.example.model.SceneFile;
+import org.example.model.config.ConfigManager;
+import org.example.view.render.SceneRenderer;
+import org.example.view.render.SceneRenderer.Layer;
+import org.junit.jupiter.api.Test;
+import processing.core.PGraphics;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRendererTest {
+
+    @Test
+    void testParsesOptions() {
+        BatchRenderer.Options options = BatchRenderer.parse(new String[]{
+                "--width", "7680", "--layers", "voltage, field-lines", "--out", "figures", "a.scene", "b.scene"});
+
+        assertEquals(7680, options.width());
+        assertEquals(0, options.height());
+        assertEquals(EnumSet.of(Layer.VOLTAGE, Layer.FIELD_LINES), options.layers());
+        assertEquals(Path.of("figures"), options.out());
+        assertEquals(List.of(Path.of("a.scene"), Path.of("b.scene")), options.scenes());
+
+        assertEquals(SceneRenderer.DEFAULT_LAYERS, BatchRenderer.parse(new String[]{"a.scene"}).layers());
+    }
+
+    @Test
+    void testRejectsBadOptions() {
+        assertThrows(IllegalArgumentException.class, () -> BatchRenderer.parse(new String[]{}));
+        assertThrows(IllegalArgumentException.class, () -> BatchRenderer.parse(new String[]{"--width", "-5", "a.scene"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchRenderer.parse(new String[]{"--layers", "heatmap", "a.scene"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchRenderer.parse(new String[]{"--dpi", "300", "a.scene"}));
+        assertThrows(IllegalArgumentException.class, () -> BatchRenderer.parse(new String[]{"a.scene", "--out"}));
+    }
+
+    @Test
+    void testImageFitsTheRequestedSize() {
+        SceneFile scene = SceneFile.parse("dipole", List.of("size 800 400", "charge 300 200 5", "charge 500 200 -5"));
+
+        assertEquals(1f, new SceneRenderer(0, 0, Set.of(), 0).scaleFor(scene), 1e-6f);
+        assertEquals(4f, new SceneRenderer(3200, 0, Set.of(), 0).scaleFor(scene), 1e-6f);
+        assertEquals(2f, new SceneRenderer(3200, 800, Set.of(), 0).scaleFor(scene), 1e-6f);
+
+        SceneRenderer renderer = new SceneRenderer(1600, 0, SceneRenderer.DEFAULT_LAYERS, 0);
+        PGraphics image = renderer.render(scene);
+        assertEquals(1600, image.width);
+        assertEquals(800, image.height);
+
+        PGraphics again = renderer.render(SceneFile.parse("row", List.of("size 800 400", "preset row")));
+        assertEquals(1600, again.width, "Scenes of the same size should render alike");
+    }
+
+    @Test
+    void testVoltageLayerShowsTheCharges() {
+        SceneFile scene = SceneFile.parse("dipole", List.of("size 800 400", "charge 300 200 5", "charge 500 200 -5"));
+        PGraphics image = new SceneRenderer(1600, 0, EnumSet.of(Layer.VOLTAGE), 0).render(scene);
+        image.loadPixels();
+
+        // 20 scene pixels beside each charge, at twice the scene's size
+        int positive = image.pixels[400 * image.width + 560];
+        int negative = image.pixels[400 * image.width + 1040];
+        assertTrue(red(positive) > blue(positive) && red(positive) > 0, "Near the positive charge the map should be red");
+        assertTrue(blue(negative) > red(negative) && blue(negative) > 0, "Near the negative charge the map should be blue");
+        int corner = image.pixels[5 * image.width + 5];
+        assertTrue(red(corner) + blue(corner) < (red(positive) + blue(negative)) / 4,
+                "Far from the charges the map should fade to the black background");
+    }
+
+    @Test
+    void testWritesAPngOfTheRenderedSize() throws Exception {
+        Path dir = Files.createTempDirectory("efield-batch");
+        Path png = dir.resolve("dipole.png");
+        try {
+            SceneFile scene = SceneFile.parse("dipole", List.of("size 800 400", "charge 300 200 5", "charge 500 200 -5"));
+            new SceneRenderer(1200, 0, SceneRenderer.DEFAULT_LAYERS, 0).write(scene, png);
+
+            assertTrue(Files.isRegularFile(png), "The PNG should have been written");
+            BufferedImage decoded = ImageIO.read(png.toFile());
+            assertNotNull(decoded, "The file should decode as an image");
+            assertEquals(1200, decoded.getWidth());
+            assertEquals(600, decoded.getHeight());
+        } finally {
+            Files.deleteIfExists(png);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void testRunLeavesTheSettingsAsItFoundThem() throws Exception {
+        ConfigManager cm = ConfigManager.getInstance();
+        int width = cm.getSidePanelWidth(), padding = cm.getSidePanelPadding();
+        Path dir = Files.createTempDirectory("efield-batch");
+        Path scene = dir.resolve("single.scene");
+        Path png = dir.resolve("single.png");
+        try {
+            Files.writeString(scene, "size 320 200\ncharge 160 100 5\n");
+            assertTrue(BatchRenderer.run(BatchRenderer.parse(new String[]{"--out", dir.toString(), scene.toString()})));
+            assertTrue(Files.isRegularFile(png));
+            assertEquals(width, cm.getSidePanelWidth(), "The batch run's side-panel override should be undone");
+            assertEquals(padding, cm.getSidePanelPadding());
+        } finally {
+            Files.deleteIfExists(png);
+            Files.deleteIfExists(scene);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static int red(int argb) {
+        return (argb >> 16) & 0xFF;
+    }
+
+    private static int blue(int argb) {
+        return argb & 0xFF;
+    }
+}
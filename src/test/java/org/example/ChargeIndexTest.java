@@ -0,0 +1,71 @@
+package org.example;
+
+import org.example.model.ChargeIndex;
+import org.example.model.ChargeStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChargeIndexTest {
+
+    @Test
+    void testFirstWithinMatchesLinearScan() {
+        Random random = new Random(11);
+        ChargeStore charges = new ChargeStore();
+        for (int i = 0; i < 2000; i++) {
+            charges.add(random.nextFloat() * 1600, random.nextFloat() * 900, random.nextInt(3) - 1);
+        }
+        ChargeIndex index = new ChargeIndex(charges, 40f);
+
+        for (int t = 0; t < 5000; t++) {
+            // include points outside the charges' bounding box
+            float x = random.nextFloat() * 1800 - 100, y = random.nextFloat() * 1100 - 100;
+            float radius = t % 2 == 0 ? 20f : 40f;
+            boolean chargedOnly = t % 3 == 0;
+            assertEquals(scanFirstWithin(charges, x, y, radius, chargedOnly), index.firstWithin(x, y, radius, chargedOnly),
+                    "first charge within " + radius + " of (" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    void testNearestDistanceIsCappedAndSkipsNeutralCharges() {
+        ChargeStore charges = new ChargeStore();
+        charges.add(100, 100, 0f);
+        charges.add(160, 100, 2f);
+        ChargeIndex index = new ChargeIndex(charges, 40f);
+
+        assertEquals(55f * 55f, index.nearestDistanceSq(105, 100, 160f), 1e-2f, "The neutral charge should be ignored");
+        assertEquals(30f * 30f, index.nearestDistanceSq(105, 100, 30f), 0f, "Distances beyond the cap should be capped");
+    }
+
+    @Test
+    void testFarApartChargesKeepTheGridSmall() {
+        ChargeStore charges = new ChargeStore();
+        charges.add(-1e7f, -1e7f, 1f);
+        charges.add(1e7f, 1e7f, -1f);
+        ChargeIndex index = new ChargeIndex(charges, 40f);
+
+        assertEquals(0, index.firstWithin(-1e7f + 1, -1e7f, 20f, true), "The first charge should still be found");
+        assertEquals(1, index.firstWithin(1e7f, 1e7f - 1, 20f, true), "The second charge should still be found");
+        assertEquals(-1, index.firstWithin(0, 0, 20f, true), "Nothing is near the origin");
+    }
+
+    @Test
+    void testEmptyStore() {
+        ChargeIndex index = new ChargeIndex(new ChargeStore(), 40f);
+        assertEquals(-1, index.firstWithin(10, 10, 20f, false), "No charges, no hit");
+        assertEquals(400f, index.nearestDistanceSq(10, 10, 20f), 0f, "No charges, capped distance");
+    }
+
+    private static int scanFirstWithin(ChargeStore charges, float x, float y, float radius, boolean chargedOnly) {
+        float[] xs = charges.getXs(), ys = charges.getYs(), qs = charges.getQs();
+        for (int i = 0; i < charges.size(); i++) {
+            if (chargedOnly && qs[i] == 0f) continue;
+            float dx = x - xs[i], dy = y - ys[i];
+            if (dx * dx + dy * dy < radius * radius) return i;
+        }
+        return -1;
+    }
+}
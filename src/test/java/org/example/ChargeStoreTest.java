@@ -0,0 +1,72 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.example.model.ChargeStore;
+import org.example.model.PointCharge;
+import org.junit.jupiter.api.Test;
+
+import processing.core.PVector;
+
+public class ChargeStoreTest {
+
+    @Test
+    public void testSyncCopiesChargesIntoArrays() {
+        ArrayList<PointCharge> charges = new ArrayList<>();
+        charges.add(new PointCharge(new PVector(10, 20), 5F));
+        charges.add(new PointCharge(new PVector(30, 40), -3F));
+
+        ChargeStore store = new ChargeStore(1);
+        assertTrue(store.sync(charges), "First sync should report a change");
+
+        assertEquals(2, store.size(), "Store should hold both charges");
+        assertEquals(30f, store.getXs()[1], 1e-6f, "x of the second charge");
+        assertEquals(40f, store.getYs()[1], 1e-6f, "y of the second charge");
+        assertEquals(-3f, store.getQs()[1], 1e-6f, "q of the second charge");
+    }
+
+    @Test
+    public void testVersionOnlyChangesWhenChargesChange() {
+        ArrayList<PointCharge> charges = new ArrayList<>();
+        PointCharge charge = new PointCharge(new PVector(10, 20), 5F);
+        charges.add(charge);
+
+        ChargeStore store = ChargeStore.of(charges);
+        long version = store.getVersion();
+
+        assertFalse(store.sync(charges), "Sync without edits should report no change");
+        assertEquals(version, store.getVersion(), "Version should be stable without edits");
+
+        charge.setPosition(new PVector(15, 20));
+        assertTrue(store.sync(charges), "Moving a charge should be detected");
+        assertNotEquals(version, store.getVersion(), "Version should change after a move");
+        version = store.getVersion();
+
+        charge.increaseCharge();
+        assertTrue(store.sync(charges), "Re-valuing a charge should be detected");
+        assertNotEquals(version, store.getVersion(), "Version should change after a re-value");
+        version = store.getVersion();
+
+        charges.remove(0);
+        assertTrue(store.sync(charges), "Removing a charge should be detected");
+        assertEquals(0, store.size(), "Store should be empty after removal");
+        assertNotEquals(version, store.getVersion(), "Version should change after a removal");
+    }
+
+    @Test
+    public void testVersionsIdentifyTheChargesAcrossStores() {
+        ChargeStore a = new ChargeStore();
+        ChargeStore b = new ChargeStore();
+        a.add(10, 20, 5f);
+        b.add(30, 40, -5f);
+        assertNotEquals(a.getVersion(), b.getVersion(), "Different stores edited alike should not share a version");
+
+        ChargeStore copy = a.copy();
+        assertEquals(a.getVersion(), copy.getVersion(), "A copy holds the same charges, so it keeps the version");
+        copy.set(0, 11, 20, 5f);
+        a.set(0, 12, 20, 5f);
+        assertNotEquals(a.getVersion(), copy.getVersion(), "Once edited apart they should differ");
+    }
+}
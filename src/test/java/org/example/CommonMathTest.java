@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 
+import org.example.model.ChargeStore;
 import org.example.model.CommonMath;
 import org.example.model.PointCharge;
 import org.junit.jupiter.api.Test;
@@ -61,6 +62,40 @@ public class CommonMathTest {
                 "Voltage should be approximately 449500");
     }
 
+    @Test
+    public void testFieldAtPointFillsForceAndVoltageSlots() {
+        // Same +5 charge at (200,200); the primitive kernel should match the PVector API
+        ArrayList<PointCharge> charges = new ArrayList<>();
+        charges.add(new PointCharge(new PVector(200, 200), 5F));
+        charges.add(new PointCharge(new PVector(260, 140), -3F));
+
+        float[] out = new float[3];
+        CommonMath.fieldAtPoint(300, 200, ChargeStore.of(charges), out);
+
+        PVector netForce = CommonMath.netForceAtPoint(new PVector(300, 200), charges);
+        float voltage = CommonMath.voltageAtPoint(new PVector(300, 200), charges);
+        float tol = 1e-1f;
+
+        assertEquals(netForce.x, out[CommonMath.FORCE_X], tol, "Force x slot should match netForceAtPoint");
+        assertEquals(netForce.y, out[CommonMath.FORCE_Y], tol, "Force y slot should match netForceAtPoint");
+        assertEquals(voltage, out[CommonMath.VOLTAGE], tol, "Voltage slot should match voltageAtPoint");
+    }
+
+    @Test
+    public void testFieldAtPointOnTopOfCharge() {
+        // Exactly on a charge the direction is undefined: no force, voltage clamped at MIN_DISTANCE
+        ArrayList<PointCharge> charges = new ArrayList<>();
+        charges.add(new PointCharge(new PVector(200, 200), 5F));
+
+        float[] out = new float[3];
+        CommonMath.fieldAtPoint(200, 200, ChargeStore.of(charges), out);
+
+        assertEquals(0.0f, out[CommonMath.FORCE_X], 1e-6f, "Force x should be 0 on the charge");
+        assertEquals(0.0f, out[CommonMath.FORCE_Y], 1e-6f, "Force y should be 0 on the charge");
+        assertEquals(8990000f * 5 / CommonMath.MIN_DISTANCE, out[CommonMath.VOLTAGE], 1f,
+                "Voltage should use the minimum distance");
+    }
+
     @Test
     public void testCreateVector() {
         // createVector() must return (0,0)
@@ -0,0 +1,42 @@
+package org.example;
+
+import org.example.model.CurveGeometry;
+import org.junit.jupiter.api.Test;
+import processing.core.PVector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurveGeometryTest {
+
+    @Test
+    void testCurvePassesThroughInnerControlPoints() {
+        List<PVector> points = List.of(new PVector(0, 0), new PVector(10, 5), new PVector(20, -5),
+                new PVector(30, 10), new PVector(40, 0));
+        List<PVector> samples = CurveGeometry.sample(points);
+
+        // two segments: 10,5 -> 20,-5 -> 30,10
+        assertEquals(2 * CurveGeometry.CURVE_DETAIL + 1, samples.size(), "Shared segment ends should not repeat");
+        assertEquals(10f, samples.getFirst().x, 1e-4f, "The curve should start at the second point");
+        assertEquals(5f, samples.getFirst().y, 1e-4f, "The curve should start at the second point");
+        assertEquals(20f, samples.get(CurveGeometry.CURVE_DETAIL).x, 1e-4f, "The curve should pass the third point");
+        assertEquals(-5f, samples.get(CurveGeometry.CURVE_DETAIL).y, 1e-4f, "The curve should pass the third point");
+        assertEquals(30f, samples.getLast().x, 1e-4f, "The curve should end at the second-to-last point");
+        assertEquals(10f, samples.getLast().y, 1e-4f, "The curve should end at the second-to-last point");
+    }
+
+    @Test
+    void testEvenlySpacedCollinearPointsStayStraight() {
+        List<PVector> points = List.of(new PVector(0, 0), new PVector(1, 2), new PVector(2, 4), new PVector(3, 6));
+        for (PVector p : CurveGeometry.sample(points)) {
+            assertEquals(2f * p.x, p.y, 1e-4f, "Samples should stay on the line y = 2x");
+        }
+    }
+
+    @Test
+    void testTooFewPointsDrawNothing() {
+        assertTrue(CurveGeometry.sample(List.of(new PVector(0, 0), new PVector(1, 1), new PVector(2, 2))).isEmpty(),
+                "curveVertex needs four points before it draws anything");
+    }
+}
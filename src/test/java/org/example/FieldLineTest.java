@@ -0,0 +1,134 @@
+package org.example;
+
+import org.example.model.ChargeStore;
+import org.example.model.FieldLine;
+import org.example.model.FieldLineConfig;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+import processing.core.PShape;
+import processing.core.PVector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldLineTest {
+
+    private final FieldEvaluator evaluator = new ScalarFieldEvaluator();
+    private PApplet pap;
+    private ChargeStore dipole;
+
+    @BeforeEach
+    void setUp() {
+        pap = new PApplet();
+        PApplet.runSketch(new String[]{"FieldLineTest"}, pap);
+        pap.noLoop();
+        pap.width = 640;
+        pap.height = 480;
+
+        dipole = new ChargeStore();
+        dipole.add(200, 240, 2f);
+        dipole.add(440, 240, -2f);
+    }
+
+    @Test
+    void testLongEulerLinesDoNotOverflowTheStack() {
+        ChargeStore single = new ChargeStore();
+        single.add(320, 240, 1f);
+        FieldLine line = new FieldLine(pap, new PVector(340, 240), single,
+                new FieldLineConfig(200000, 20f, 5), evaluator);
+
+        assertEquals(200001, line.getPoints().size(), "Every loop should add one point");
+    }
+
+    @Test
+    void testAdaptiveLineEndsOnTheNegativeCharge() {
+        PVector start = new PVector(220.5f, 240);
+        FieldLine euler = new FieldLine(pap, start, dipole,
+                new FieldLineConfig(500, 20f, 5, FieldLineConfig.EULER, 0f), evaluator);
+        FieldLine adaptive = new FieldLine(pap, start, dipole,
+                new FieldLineConfig(500, 20f, 5, FieldLineConfig.RK45, 0.05f), evaluator);
+
+        assertEquals(440f, adaptive.getPoints().getLast().x, 0f, "The line should snap to the negative charge");
+        assertEquals(240f, adaptive.getPoints().getLast().y, 0f, "The line should snap to the negative charge");
+        assertEquals(euler.getPoints().getLast().x, adaptive.getPoints().getLast().x, 0f,
+                "Both integrators should end on the same charge");
+    }
+
+    @Test
+    void testAdaptiveLineFollowsTheFieldWithFewerPoints() {
+        PVector start = new PVector(210, 222.5f);
+        // a very fine Euler trace stands in for the exact line
+        FieldLine reference = new FieldLine(pap, start, dipole,
+                new FieldLineConfig(100000, 0.05f, 5, FieldLineConfig.EULER, 0f), evaluator);
+        FieldLine euler = new FieldLine(pap, start, dipole,
+                new FieldLineConfig(500, 20f, 5, FieldLineConfig.EULER, 0f), evaluator);
+        FieldLine adaptive = new FieldLine(pap, start, dipole,
+                new FieldLineConfig(500, 20f, 5, FieldLineConfig.RK45, 0.05f), evaluator);
+
+        assertTrue(adaptive.getPoints().size() < euler.getPoints().size(),
+                "Adaptive steps should need fewer points (" + adaptive.getPoints().size()
+                        + ") than fixed steps (" + euler.getPoints().size() + ")");
+        float adaptiveError = maxDistanceTo(reference.getPoints(), adaptive.getPoints());
+        float eulerError = maxDistanceTo(reference.getPoints(), euler.getPoints());
+        assertTrue(adaptiveError < 1f, "Adaptive points should lie on the line, off by " + adaptiveError);
+        assertTrue(adaptiveError < eulerError, "Adaptive points should be closer than fixed steps");
+    }
+
+    @Test
+    void testUnknownIntegratorIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new FieldLineConfig(500, 20f, 5, "midpoint", 0.05f));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FieldLineConfig(500, 20f, 5, FieldLineConfig.RK45, 0f));
+    }
+
+    @Test
+    void testCurveGeometryIsBuiltOnce() {
+        int[] shapesCreated = {0};
+        PApplet counting = new PApplet() {
+            @Override
+            public PShape createShape() {
+                shapesCreated[0]++;
+                return super.createShape();
+            }
+        };
+        counting.width = 640;
+        counting.height = 480;
+        // never started, so it needs a graphics context to draw into
+        counting.g = pap.createGraphics(640, 480);
+        FieldLine line = new FieldLine(counting, new PVector(220.5f, 240), dipole,
+                new FieldLineConfig(500, 20f, 5), evaluator);
+
+        counting.g.beginDraw();
+        line.display(counting);
+        line.display(counting);
+        line.display(counting);
+        counting.g.endDraw();
+        assertEquals(1, shapesCreated[0], "The traced curve should be baked into a shape once");
+    }
+
+    // largest distance from any point of line to the nearest point of the reference polyline
+    private static float maxDistanceTo(List<PVector> reference, List<PVector> line) {
+        float worst = 0f;
+        for (PVector p : line) {
+            float best = Float.MAX_VALUE;
+            for (int i = 1; i < reference.size(); i++) {
+                best = Math.min(best, distanceToSegment(p, reference.get(i - 1), reference.get(i)));
+            }
+            worst = Math.max(worst, best);
+        }
+        return worst;
+    }
+
+    private static float distanceToSegment(PVector p, PVector a, PVector b) {
+        float dx = b.x - a.x, dy = b.y - a.y;
+        float len2 = dx * dx + dy * dy;
+        float t = len2 == 0f ? 0f : Math.max(0f, Math.min(1f, ((p.x - a.x) * dx + (p.y - a.y) * dy) / len2));
+        float cx = a.x + t * dx - p.x, cy = a.y + t * dy - p.y;
+        return (float) Math.sqrt(cx * cx + cy * cy);
+    }
+}
@@ -0,0 +1,104 @@
+package org.example;
+
+import org.example.model.ChargeIndex;
+import org.example.model.ChargeStore;
+import org.example.model.FieldVector;
+import org.example.model.FieldVectorGrid;
+import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PShape;
+import processing.core.PVector;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldVectorGridTest {
+
+    private final FieldEvaluator evaluator = new ScalarFieldEvaluator();
+    private ChargeStore charges;
+    private FieldVectorGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        charges = new ChargeStore();
+        charges.add(200, 200, 1f);
+        charges.add(400, 260, -2f);
+        grid = new FieldVectorGrid(charges, evaluator, new ChargeIndex(charges, 40f), 640, 480);
+    }
+
+    @Test
+    void testVectorsMatchTheForceAtEachGridPoint() throws Exception {
+        float scale = ConfigManager.getInstance().getFieldVectorScale();
+        float[] force = new float[2];
+        assertFalse(grid.isEmpty(), "Points away from the charges should get vectors");
+        for (FieldVector vector : grid) {
+            Field positionField = FieldVector.class.getDeclaredField("position");
+            Field forceField = FieldVector.class.getDeclaredField("forceVector");
+            positionField.setAccessible(true);
+            forceField.setAccessible(true);
+            PVector position = (PVector) positionField.get(vector);
+            PVector forceVector = (PVector) forceField.get(vector);
+
+            evaluator.forceAt(charges, position.x, position.y, force);
+            assertEquals(force[0] / scale, forceVector.x, 1e-6f, "force x at " + position.x + ", " + position.y);
+            assertEquals(force[1] / scale, forceVector.y, 1e-6f, "force y at " + position.x + ", " + position.y);
+        }
+    }
+
+    @Test
+    void testGridKnowsWhatItWasComputedFor() {
+        assertTrue(grid.isFor(charges, evaluator, 640, 480), "Unchanged charges should reuse the grid");
+        assertFalse(grid.isFor(charges, new ScalarFieldEvaluator(), 640, 480), "Another evaluator needs a new grid");
+        assertFalse(grid.isFor(charges, evaluator, 800, 480), "Another canvas size needs a new grid");
+        charges.set(0, 210, 200, 1f);
+        assertFalse(grid.isFor(charges, evaluator, 640, 480), "Moved charges need a new grid");
+    }
+
+    @Test
+    void testAllArrowsAreDrawnFromOneMeshBuiltOnce() {
+        List<float[]> recordedVertices = new ArrayList<>();
+        int[] shapesCreated = {0};
+        PApplet recording = new PApplet() {
+            @Override
+            public PShape createShape() {
+                shapesCreated[0]++;
+                return new PShape() {
+                    @Override
+                    public void vertex(float x, float y) {
+                        recordedVertices.add(new float[]{x, y});
+                    }
+                };
+            }
+        };
+        // never started, so give it a graphics context that records what it is asked to draw
+        List<PShape> drawnShapes = new ArrayList<>();
+        recording.g = new PGraphics() {
+            @Override
+            public void shape(PShape shape) {
+                drawnShapes.add(shape);
+            }
+        };
+
+        grid.display(recording);
+        grid.display(recording);
+
+        assertEquals(1, shapesCreated[0], "The arrows should be baked into a single shape once");
+        assertEquals(2, drawnShapes.size(), "Each display should draw the mesh once");
+        assertSame(drawnShapes.get(0), drawnShapes.get(1), "Both displays should draw the same mesh");
+        assertEquals(0, recordedVertices.size() % 9, "Each arrow is a two-triangle stem plus a head");
+        int drawn = 0;
+        for (FieldVector vector : grid) {
+            drawn++;
+        }
+        assertTrue(recordedVertices.size() / 9 <= drawn, "At most one arrow per grid point");
+        assertTrue(recordedVertices.size() > 0, "Arrows near the charges are long enough to draw");
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import org.example.model.MarchingSquares;
+import org.example.model.MarchingSquares.Contour;
+import org.junit.jupiter.api.Test;
+import processing.core.PVector;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarchingSquaresTest {
+
+    private static float[] sample(int cols, int rows, float cellSize, java.util.function.BiFunction<Float, Float, Float> f) {
+        float[] values = new float[cols * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                values[y * cols + x] = f.apply(x * cellSize, y * cellSize);
+            }
+        }
+        return values;
+    }
+
+    @Test
+    void testRadialFieldGivesOneClosedCircle() {
+        float[] values = sample(41, 41, 5f, (x, y) -> 1000f / (float) Math.hypot(x - 100, y - 100));
+        List<Contour> contours = MarchingSquares.extract(values, 41, 41, 5f, 20f);
+
+        assertEquals(1, contours.size(), "A single charge should give one contour per level");
+        Contour circle = contours.getFirst();
+        assertTrue(circle.closed(), "The contour around a charge should close");
+        assertEquals(circle.points().getFirst().x, circle.points().getLast().x, 0f, "Closed contours repeat their start");
+        for (PVector p : circle.points()) {
+            assertEquals(50f, PVector.dist(p, new PVector(100, 100)), 1f, "Points should lie where 1000 / r = 20");
+        }
+    }
+
+    @Test
+    void testLinearFieldGivesOneOpenLine() {
+        float[] values = sample(10, 8, 10f, (x, y) -> x);
+        List<Contour> contours = MarchingSquares.extract(values, 10, 8, 10f, 45f);
+
+        assertEquals(1, contours.size(), "A linear ramp should give one contour");
+        Contour line = contours.getFirst();
+        assertFalse(line.closed(), "The contour should run from border to border");
+        assertEquals(8, line.points().size(), "One crossing per grid row");
+        for (PVector p : line.points()) {
+            assertEquals(45f, p.x, 1e-4f, "The crossing should be interpolated to x = 45");
+        }
+    }
+
+    @Test
+    void testEveryLevelIsExtractedInOnePass() {
+        float[] values = sample(41, 41, 5f, (x, y) -> 1000f / (float) Math.hypot(x - 60, y - 100)
+                - 1000f / (float) Math.hypot(x - 140, y - 100));
+        List<Contour> contours = MarchingSquares.extract(values, 41, 41, 5f, -20f, 0f, 20f);
+
+        assertEquals(1, contours.stream().filter(c -> c.level() == 20f).count(), "One loop around the positive charge");
+        assertEquals(1, contours.stream().filter(c -> c.level() == -20f).count(), "One loop around the negative charge");
+        Contour zero = contours.stream().filter(c -> c.level() == 0f).findFirst().orElseThrow();
+        assertFalse(zero.closed(), "The 0 V line of a dipole crosses the whole grid");
+        for (PVector p : zero.points()) {
+            assertEquals(100f, p.x, 1e-3f, "The 0 V line is the perpendicular bisector");
+        }
+    }
+
+    @Test
+    void testFlatGridHasNoContours() {
+        assertTrue(MarchingSquares.extract(new float[16], 4, 4, 1f, 1f).isEmpty(), "Nothing crosses a flat grid");
+        assertTrue(MarchingSquares.extract(new float[4], 4, 1, 1f, 0f).isEmpty(), "A single row has no squares");
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.example.model.SceneFile;
+import org.example.model.SimulationModel;
+import org.example.view.ui.ControlPanel;
+import org.junit.jupiter.api.Test;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PApplet;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SceneFileTest {
+
+    @Test
+    void testParsesSizePresetAndCharges() {
+        SceneFile scene = SceneFile.parse("figure", List.of(
+                "# two charges on a wide canvas",
+                "size 1600 400",
+                "",
+                "preset dipole   # placed first",
+                "charge 100 200 5",
+                "  charge 300.5 -20 -2.5"));
+
+        assertEquals("figure", scene.name());
+        assertEquals(1600, scene.width());
+        assertEquals(400, scene.height());
+        assertEquals("dipole", scene.preset());
+        assertEquals(List.of(new SceneFile.PlacedCharge(100, 200, 5), new SceneFile.PlacedCharge(300.5f, -20, -2.5f)), scene.charges());
+    }
+
+    @Test
+    void testDefaultsAndFileName() throws Exception {
+        Path file = Files.createTempFile("quadrupole", ".scene");
+        try {
+            Files.writeString(file, "charge 10 10 1\n");
+            SceneFile scene = SceneFile.read(file);
+            assertTrue(file.getFileName().toString().startsWith(scene.name()));
+            assertFalse(scene.name().endsWith(".scene"), "The extension should be dropped from the name");
+            assertEquals(SceneFile.DEFAULT_WIDTH, scene.width());
+            assertEquals(SceneFile.DEFAULT_HEIGHT, scene.height());
+            assertNull(scene.preset());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testErrorsNameTheLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> SceneFile.parse("bad", List.of("size 640 480", "charge 1 two 3")));
+        assertTrue(e.getMessage().startsWith("bad:2: "), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.parse("bad", List.of("size 0 480")));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.parse("bad", List.of("preset tripole")));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.parse("bad", List.of("charge 1 2")));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.parse("bad", List.of("charge 1 2 NaN")));
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.parse("bad", List.of("wall 1 2 3 4")));
+    }
+
+    @Test
+    void testApplyReplacesTheCharges() {
+        PApplet app = new PApplet();
+        app.width = 800;
+        app.height = 600;
+        // never started, so it needs graphics of its own for the model's createGraphics()
+        PGraphicsJava2D graphics = new PGraphicsJava2D();
+        graphics.setParent(app);
+        graphics.setPrimary(true);
+        graphics.setSize(800, 600);
+        app.g = graphics;
+        ControlPanel controlPanel = new ControlPanel(app, null, true);
+        SimulationModel sim = new SimulationModel(app, controlPanel);
+        sim.addPointCharge(new processing.core.PVector(50, 50), 1f);
+
+        SceneFile.parse("two", List.of("size 800 600", "charge 100 100 2", "charge 200 100 -2")).applyTo(sim);
+
+        assertEquals(2, sim.getPointCharges().size());
+        assertEquals(2, sim.getChargeStore().size());
+        assertFalse(sim.getPointCharges().getFirst().selected, "Scene charges should not be drawn selected");
+
+        SceneFile.parse("preset", List.of("size 800 600", "preset dipole", "charge 100 100 1")).applyTo(sim);
+        assertEquals(3, sim.getPointCharges().size(), "The preset's two charges plus the scene's own");
+    }
+}
@@ -1,6 +1,15 @@
 package org.example;
 
+import org.example.factories.ProcessingChargeFactory;
+import org.example.factories.ProcessingFieldElementFactory;
+import org.example.model.ChargeStore;
+import org.example.model.EquiLine;
 import org.example.model.SimulationModel;
+import org.example.model.VoltageGradient;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.FieldEvaluators;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.example.view.ui.ControlPanel;
 import org.example.model.PointCharge;
 import org.example.model.TestCharge;
 import org.example.model.config.ConfigManager;
@@ -9,7 +18,13 @@ import org.junit.jupiter.api.Test;
 import processing.core.PApplet;
 import processing.core.PVector;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +159,191 @@ public class SimulationModelTest {
         assertEquals(original.y, moved.y, 1e-6f,
                 "Without point charges, TestCharge y should not change");
     }
+
+    @Test
+    void testEquipotentialFamilyContoursEveryLevel() throws Exception {
+        sim.addPointCharge(new PVector(150, 240), 5f);
+        sim.addPointCharge(new PVector(300, 240), -5f);
+        sim.createEquipotentialFamily();
+
+        java.lang.reflect.Field field = SimulationModel.class.getDeclaredField("equiLines");
+        field.setAccessible(true);
+        List<?> lines = (List<?>) field.get(sim);
+        // every non-zero level closes around one charge, and 0 V crosses the grid
+        assertEquals(2 * cm.getEquiLinesFamilySize() + 1, lines.size(),
+                "Each level of the family should produce one contour");
+    }
+
+    @Test
+    void testEquipotentialIsTracedInTheBackground() throws Exception {
+        useControlPanel();
+        sim.addPointCharge(new PVector(300, 240), 5f);
+        Future<Void> trace = sim.traceEquipotentialLine(new PVector(380, 240));
+        assertNotNull(trace, "A trace should start when there are charges");
+        trace.get(30, TimeUnit.SECONDS);
+
+        sim.update();
+        assertEquals(2, equiLines().size(), "A finished trace should add both halves of the line");
+    }
+
+    @Test
+    void testChangingChargesCancelsTheTrace() throws Exception {
+        useControlPanel();
+        CountDownLatch tracing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FieldEvaluator scalar = new ScalarFieldEvaluator();
+        sim.setFieldEvaluator(new FieldEvaluator() {
+            @Override
+            public void forceAt(ChargeStore charges, float x, float y, float[] out) {
+                // hold the background trace only; field lines and vectors still evaluate normally
+                if (Thread.currentThread().getName().equals("equipotential-tracer")) {
+                    tracing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                scalar.forceAt(charges, x, y, out);
+            }
+
+            @Override
+            public float voltageAt(ChargeStore charges, float x, float y) {
+                return scalar.voltageAt(charges, x, y);
+            }
+        });
+        sim.addPointCharge(new PVector(300, 240), 5f);
+        Future<Void> trace = sim.traceEquipotentialLine(new PVector(380, 240));
+        assertTrue(tracing.await(30, TimeUnit.SECONDS), "The trace should start on another thread");
+
+        sim.getPointCharges().get(0).setPosition(new PVector(320, 240));
+        sim.update();
+        release.countDown();
+
+        assertTrue(trace.isCancelled(), "Moving a charge should cancel the trace in flight");
+        sim.update();
+        assertTrue(equiLines().isEmpty(), "A cancelled trace should not add lines");
+    }
+
+    @Test
+    void testTraceInFlightIsOnlyBakedWhenFinished() throws Exception {
+        int[] linesCreated = {0};
+        ProcessingFieldElementFactory counting = new ProcessingFieldElementFactory() {
+            @Override
+            public EquiLine createEquiLine(PApplet app, ArrayList<PVector> points, Float voltage) {
+                linesCreated[0]++;
+                return super.createEquiLine(app, points, voltage);
+            }
+        };
+        ControlPanel controlPanel = new ControlPanel(pap, null, true);
+        sim = new SimulationModel(pap, controlPanel, counting, new ProcessingChargeFactory());
+        CountDownLatch tracing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FieldEvaluator scalar = new ScalarFieldEvaluator();
+        sim.setFieldEvaluator(new FieldEvaluator() {
+            @Override
+            public void forceAt(ChargeStore charges, float x, float y, float[] out) {
+                // hold the trace after its first points
+                if (Thread.currentThread().getName().equals("equipotential-tracer")) {
+                    tracing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                scalar.forceAt(charges, x, y, out);
+            }
+
+            @Override
+            public float voltageAt(ChargeStore charges, float x, float y) {
+                return scalar.voltageAt(charges, x, y);
+            }
+        });
+        sim.addPointCharge(new PVector(300, 240), 5f);
+        Future<Void> trace = sim.traceEquipotentialLine(new PVector(380, 240));
+        try {
+            assertTrue(tracing.await(30, TimeUnit.SECONDS), "The trace should start on another thread");
+
+            sim.displayEquipotentialLines(pap);
+            sim.displayEquipotentialLines(pap);
+            sim.displayEquipotentialLines(pap);
+            assertEquals(0, linesCreated[0], "A trace in flight should be drawn without building lines");
+        } finally {
+            release.countDown();
+        }
+        trace.get(30, TimeUnit.SECONDS);
+        sim.update();
+        sim.displayEquipotentialLines(pap);
+        sim.displayEquipotentialLines(pap);
+        assertEquals(2, linesCreated[0], "The finished trace should be baked into its two lines once");
+    }
+
+    @Test
+    void testSettingsChangesDropOnlyAffectedGeometry() throws Exception {
+        useControlPanel();
+        sim.addPointCharge(new PVector(200, 200), 5f);
+        sim.createFieldVectors();
+        sim.createFieldLines();
+        Object vectors = field("fieldVectors");
+        Object lines = field("fieldLines");
+
+        sim.onConfigChanged(cm.snapshot(), cm.snapshot(), Set.of("field.vector.scale"));
+        sim.update();
+        assertNotSame(vectors, field("fieldVectors"), "A new vector scale should drop the cached vectors");
+        assertSame(lines, field("fieldLines"), "Field lines don't depend on the vector scale");
+
+        sim.createFieldLines();
+        assertSame(lines, field("fieldLines"), "Unchanged settings should keep the traced lines");
+        sim.onConfigChanged(cm.snapshot(), cm.snapshot(), Set.of("field.lines.tolerance"));
+        sim.update();
+        sim.createFieldLines();
+        assertNotSame(lines, field("fieldLines"), "A new field-line tolerance should retrace the lines");
+    }
+
+    @Test
+    void testSettingsChangesResizeTheVoltageMapAndSwapTheEvaluator() throws Exception {
+        useControlPanel();
+        sim.addPointCharge(new PVector(200, 200), 5f);
+        sim.createFieldVectors();
+        VoltageGradient gradient = (VoltageGradient) field("voltageGradient");
+        Object vectors = field("fieldVectors");
+
+        try (ConfigManager.Scope ignored = cm.override(Map.of(
+                "side.panel.width", String.valueOf(cm.getSidePanelWidth() + 100),
+                "field.evaluator", "scalar"))) {
+            sim.onConfigChanged(cm.snapshot(), cm.snapshot(), Set.of("side.panel.width", "field.evaluator"));
+            sim.update();
+
+            VoltageGradient resized = (VoltageGradient) field("voltageGradient");
+            assertNotSame(gradient, resized, "A wider side panel should lay the voltage map out again");
+            assertTrue(resized.getCols() < gradient.getCols(), "The map should stop short of the wider panel");
+            assertEquals(gradient.getRows(), resized.getRows(), "The side panel doesn't change the rows");
+
+            assertTrue(sim.getFieldEvaluator() instanceof ScalarFieldEvaluator, "field.evaluator should be re-resolved");
+            assertSame(FieldEvaluators.getDefault(), sim.getFieldEvaluator(), "The model should use the new default");
+            sim.createFieldVectors();
+            assertNotSame(vectors, field("fieldVectors"), "A new evaluator should recompute the vectors");
+        }
+    }
+
+    private Object field(String name) throws Exception {
+        java.lang.reflect.Field field = SimulationModel.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(sim);
+    }
+
+    // update() runs the modes, which need a (headless) control panel
+    private void useControlPanel() {
+        ControlPanel controlPanel = new ControlPanel(pap, null, true);
+        sim = new SimulationModel(pap, controlPanel);
+        controlPanel.setSimulation(sim);
+        controlPanel.addListener(sim);
+    }
+
+    private List<?> equiLines() throws Exception {
+        java.lang.reflect.Field field = SimulationModel.class.getDeclaredField("equiLines");
+        field.setAccessible(true);
+        return (List<?>) field.get(sim);
+    }
 }
@@ -0,0 +1,130 @@
+package org.example;
+
+import org.example.model.ChargeStore;
+import org.example.model.SceneSnapshot;
+import org.example.model.SimulationFrame;
+import org.example.model.SimulationModel;
+import org.example.model.SimulationWorker;
+import org.example.model.VoltageGrid;
+import org.example.model.config.ConfigManager;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.example.view.ui.ControlPanel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationWorkerTest {
+
+    private PApplet pap;
+    private SimulationModel sim;
+    private ControlPanel controlPanel;
+    private SimulationWorker worker;
+    private final FieldEvaluator evaluator = new ScalarFieldEvaluator();
+
+    @BeforeEach
+    void setUp() {
+        pap = new PApplet();
+        PApplet.runSketch(new String[]{"SimulationWorkerTest"}, pap);
+        pap.noLoop();
+        pap.width = 640;
+        pap.height = 480;
+
+        controlPanel = new ControlPanel(pap, null, true);
+        sim = new SimulationModel(pap, controlPanel);
+        controlPanel.setSimulation(sim);
+        controlPanel.addListener(sim);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sim.stopWorker();
+        if (worker != null) worker.stop();
+    }
+
+    private static void waitFor(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(5);
+        }
+    }
+
+    private static ChargeStore dipole(float x) {
+        ChargeStore charges = new ChargeStore();
+        charges.add(x, 200, 2f);
+        charges.add(x + 150, 200, -2f);
+        return charges;
+    }
+
+    private List<?> fieldLines() throws Exception {
+        Field field = SimulationModel.class.getDeclaredField("fieldLines");
+        field.setAccessible(true);
+        return (List<?>) field.get(sim);
+    }
+
+    @Test
+    void testFieldLinesArriveFromTheWorker() throws Exception {
+        controlPanel.toggleFieldLines(true);
+        sim.addPointCharge(new PVector(200, 200), 2f);
+        sim.startWorker();
+        assertTrue(sim.getWorker().isRunning(), "worker thread should be running");
+
+        sim.update();
+        waitFor(() -> sim.getWorker().getLatestFrame() != null, "worker should publish a frame");
+        sim.update();
+
+        int expected = (int) (2f * ConfigManager.getInstance().getFieldLinesPerCoulomb());
+        assertEquals(expected, fieldLines().size(),
+                "the model should show the worker's field lines");
+    }
+
+    @Test
+    void testStaleSnapshotsAreDropped() throws Exception {
+        worker = new SimulationWorker(sim, new VoltageGrid(40, 30, 8f));
+        SceneSnapshot stale = new SceneSnapshot(dipole(100), evaluator, true, false, false, false);
+        SceneSnapshot fresh = new SceneSnapshot(dipole(300), evaluator, true, false, false, false);
+        worker.submit(stale);
+        worker.submit(fresh);
+        worker.start();
+
+        waitFor(() -> worker.getLatestFrame() != null, "worker should publish a frame");
+        Thread.sleep(50);
+        assertSame(fresh, worker.getLatestFrame().snapshot(), "only the newest snapshot should be computed");
+    }
+
+    @Test
+    void testVoltageColoursMatchASynchronousGrid() throws Exception {
+        worker = new SimulationWorker(sim, new VoltageGrid(40, 30, 8f));
+        ChargeStore charges = dipole(120);
+        worker.start();
+        worker.submit(new SceneSnapshot(charges.copy(), evaluator, false, false, true, false));
+        waitFor(() -> worker.getLatestFrame() != null, "worker should publish a frame");
+
+        SimulationFrame frame = worker.getLatestFrame();
+        assertNull(frame.fieldLines(), "field lines were not requested");
+        VoltageGrid expected = new VoltageGrid(40, 30, 8f);
+        expected.update(charges, evaluator, false);
+        assertArrayEquals(expected.getColors(), frame.voltageColors(), "worker colours should match");
+    }
+
+    @Test
+    void testStopWorkerReturnsToSynchronousUpdates() throws Exception {
+        sim.startWorker();
+        sim.stopWorker();
+        assertNull(sim.getWorker(), "worker should be gone after stopWorker");
+
+        controlPanel.toggleFieldLines(true);
+        sim.addPointCharge(new PVector(200, 200), 1f);
+        sim.update();
+        assertFalse(fieldLines().isEmpty(), "field lines should be computed synchronously again");
+    }
+}
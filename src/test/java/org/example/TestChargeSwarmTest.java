@@ -0,0 +1,183 @@
+package org.example;
+
+import org.example.model.ChargeStore;
+import org.example.model.TestCharge;
+import org.example.model.TestChargeSwarm;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.example.model.motion.VelocityVerletIntegrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PVector;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestChargeSwarmTest {
+
+    private final FieldEvaluator evaluator = new ScalarFieldEvaluator();
+    private ChargeStore charges;
+
+    @BeforeEach
+    void setUp() {
+        charges = new ChargeStore();
+        charges.add(200, 200, 1f);
+        charges.add(400, 260, -2f);
+    }
+
+    @Test
+    void testParticlesMoveLikeTestCharges() {
+        TestChargeSwarm swarm = new TestChargeSwarm(1);
+        TestCharge[] reference = {
+                new TestCharge(new PVector(300, 220), 0.5f),
+                new TestCharge(new PVector(250, 330), -0.5f),
+                new TestCharge(new PVector(120, 90), 0f)
+        };
+        for (TestCharge tc : reference) {
+            swarm.add(tc.getPosition().x, tc.getPosition().y, tc.getCharge());
+        }
+
+        for (int step = 0; step < 5; step++) {
+            swarm.move(charges, evaluator);
+            for (TestCharge tc : reference) {
+                tc.move(charges, evaluator);
+            }
+        }
+
+        assertEquals(reference.length, swarm.size());
+        for (int i = 0; i < reference.length; i++) {
+            assertEquals(reference[i].getPosition().x, swarm.getXs()[i], 1e-3f, "x of particle " + i);
+            assertEquals(reference[i].getPosition().y, swarm.getYs()[i], 1e-3f, "y of particle " + i);
+        }
+    }
+
+    @Test
+    void testBatchForcesGiveTheSameStep() {
+        TestChargeSwarm direct = new TestChargeSwarm();
+        TestChargeSwarm batched = new TestChargeSwarm();
+        direct.add(300, 220, 0.5f);
+        direct.add(250, 330, -0.5f);
+        batched.add(300, 220, 0.5f);
+        batched.add(250, 330, -0.5f);
+
+        float[] force = new float[2];
+        float[] fx = new float[2], fy = new float[2];
+        for (int i = 0; i < 2; i++) {
+            evaluator.forceAt(charges, batched.getXs()[i], batched.getYs()[i], force);
+            fx[i] = force[0];
+            fy[i] = force[1];
+        }
+        direct.move(charges, evaluator);
+        batched.applyForces(fx, fy, charges, evaluator);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(direct.getXs()[i], batched.getXs()[i], 1e-6f);
+            assertEquals(direct.getYs()[i], batched.getYs()[i], 1e-6f);
+            assertEquals(direct.getVxs()[i], batched.getVxs()[i], 1e-6f);
+            assertEquals(direct.getVys()[i], batched.getVys()[i], 1e-6f);
+        }
+    }
+
+    @Test
+    void testRetainWithinDropsStrayParticlesInOrder() {
+        TestChargeSwarm swarm = new TestChargeSwarm();
+        swarm.add(10, 10, 1f);
+        swarm.add(-500, 10, 1f);
+        swarm.add(20, 30, -1f);
+        swarm.add(Float.NaN, 0, 1f);
+        swarm.add(40, 50, 0f);
+
+        assertEquals(2, swarm.retainWithin(0, 0, 100, 100), "Two particles are outside or not finite");
+
+        assertEquals(3, swarm.size());
+        float[][] expected = {{10, 10, 1f}, {20, 30, -1f}, {40, 50, 0f}};
+        for (int i = 0; i < expected.length; i++) {
+            TestCharge tc = swarm.get(i);
+            assertEquals(expected[i][0], tc.getPosition().x, 1e-6f);
+            assertEquals(expected[i][1], tc.getPosition().y, 1e-6f);
+            assertEquals(expected[i][2], tc.getCharge(), 1e-6f);
+        }
+    }
+
+    @Test
+    void testParallelSteppingDoesNotDependOnThreadCount() {
+        int n = 5000;
+        TestChargeSwarm sequential = new TestChargeSwarm(n);
+        TestChargeSwarm parallel = new TestChargeSwarm(n);
+        for (int i = 0; i < n; i++) {
+            float x = 20 + (i % 100) * 6.1f, y = 15 + (i / 100) * 9.3f, q = (i % 3 - 1) * 0.5f;
+            sequential.add(x, y, q);
+            parallel.add(x, y, q);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int step = 0; step < 3; step++) {
+                sequential.move(charges, evaluator);
+                parallel.move(charges, evaluator, pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(sequential.getXs()[i], parallel.getXs()[i], "x of particle " + i);
+            assertEquals(sequential.getYs()[i], parallel.getYs()[i], "y of particle " + i);
+        }
+    }
+
+    @Test
+    void testSubsteppingSplitsFastSteps() {
+        TestChargeSwarm split = new TestChargeSwarm();
+        split.setIntegrator(new VelocityVerletIntegrator());
+        split.setSubstepping(4, 1e-3f);
+        TestChargeSwarm fine = new TestChargeSwarm();
+        fine.setIntegrator(new VelocityVerletIntegrator());
+        fine.setTimestep(0.25f);
+        split.add(230, 215, 0.5f);
+        fine.add(230, 215, 0.5f);
+
+        split.move(charges, evaluator);
+        for (int i = 0; i < 4; i++) {
+            fine.move(charges, evaluator);
+        }
+
+        assertNotEquals(230f, split.getXs()[0], "The particle should have moved");
+        assertEquals(fine.getXs()[0], split.getXs()[0], 1e-4f, "Four sub-steps should match four quarter steps");
+        assertEquals(fine.getYs()[0], split.getYs()[0], 1e-4f);
+        assertEquals(fine.getVxs()[0], split.getVxs()[0], 1e-4f);
+        assertEquals(fine.getVys()[0], split.getVys()[0], 1e-4f);
+    }
+
+    @Test
+    void testParticleOnAChargeStaysPut() {
+        TestChargeSwarm swarm = new TestChargeSwarm();
+        swarm.setIntegrator(new VelocityVerletIntegrator());
+        swarm.setSubstepping(16, 1f);
+        swarm.add(200, 200, 0.5f);
+
+        swarm.move(charges, evaluator);
+
+        assertTrue(Float.isFinite(swarm.getXs()[0]) && Float.isFinite(swarm.getYs()[0]), "Position should stay finite");
+    }
+
+    @Test
+    void testRememberedPositionsFollowCompaction() throws Exception {
+        TestChargeSwarm swarm = new TestChargeSwarm();
+        swarm.add(10, 10, 1f);
+        swarm.add(-500, 10, 1f);
+        swarm.add(20, 30, -1f);
+        swarm.rememberPositions();
+        swarm.getXs()[2] = 24;
+        swarm.retainWithin(0, 0, 100, 100);
+
+        Field previous = TestChargeSwarm.class.getDeclaredField("previousXs");
+        previous.setAccessible(true);
+        float[] previousXs = (float[]) previous.get(swarm);
+        assertEquals(10f, previousXs[0], 1e-6f);
+        assertEquals(20f, previousXs[1], 1e-6f, "The survivor's remembered position should move with it");
+        assertEquals(24f, swarm.getXs()[1], 1e-6f);
+    }
+}
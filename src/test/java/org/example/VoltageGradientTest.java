@@ -0,0 +1,196 @@
+package org.example;
+
+import org.example.model.ChargeStore;
+import org.example.model.CommonMath;
+import org.example.model.SimulationModel;
+import org.example.model.VoltageGradient;
+import org.example.model.config.ConfigManager;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoltageGradientTest {
+
+    private PApplet pap;
+    private VoltageGradient gradient;
+    private ChargeStore charges;
+    private final ScalarFieldEvaluator evaluator = new ScalarFieldEvaluator();
+    private float fidelity;
+
+    @BeforeEach
+    void setUp() {
+        pap = new PApplet();
+        PApplet.runSketch(new String[]{"VoltageGradientTest"}, pap);
+        pap.noLoop();
+        pap.width = 640;
+        pap.height = 480;
+
+        gradient = new VoltageGradient(new SimulationModel(pap, null));
+        fidelity = ConfigManager.getInstance().getGridSize() / 3;
+
+        charges = new ChargeStore();
+        charges.add(120, 200, 5f);
+        charges.add(300, 260, -5f);
+        gradient.updateVoltageGradient(charges, evaluator);
+    }
+
+    @Test
+    void testCellVoltagesMatchDirectSum() {
+        for (int row = 0; row < 40; row += 7) {
+            for (int col = 0; col < 40; col += 5) {
+                float expected = CommonMath.voltageAtPoint(col * fidelity, row * fidelity, charges);
+                assertEquals(expected, gradient.getVoltage(col, row), Math.abs(expected) * 1e-5f,
+                        "voltage of cell (" + col + ", " + row + ")");
+            }
+        }
+    }
+
+    @Test
+    void testPixelsTakeTheirCellColour() {
+        int[] pixels = gradient.pg.pixels;
+        for (int py = 0; py < 400; py += 13) {
+            for (int px = 0; px < 380; px += 11) {
+                int col = (int) (px / fidelity), row = (int) (py / fidelity);
+                assertEquals(gradient.getColor(col, row), pixels[py * gradient.pg.width + px],
+                        "pixel (" + px + ", " + py + ")");
+            }
+        }
+    }
+
+    @Test
+    void testPositiveChargeIsRedAndNegativeIsBlue() {
+        int nearPositive = gradient.getColor((int) (120 / fidelity), (int) (200 / fidelity) + 1);
+        int nearNegative = gradient.getColor((int) (300 / fidelity), (int) (260 / fidelity) + 1);
+        assertTrue((nearPositive >> 16 & 0xff) > 0 && (nearPositive & 0xff) == 0, "positive voltage should be red");
+        assertTrue((nearNegative & 0xff) > 0 && (nearNegative >> 16 & 0xff) == 0, "negative voltage should be blue");
+    }
+
+    @Test
+    void testPixelsOutsideTheGridAreTransparent() {
+        int[] pixels = gradient.pg.pixels;
+        int width = gradient.pg.width;
+        assertEquals(0, pixels[100 * width + width - 1], "side panel pixels should stay transparent");
+    }
+
+    @Test
+    void testIncrementalUpdateMatchesFullRecompute() {
+        // drag the first charge, change the second one's value, then drop in a third
+        charges.set(0, 180, 150, 5f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertTrue(gradient.isLastUpdateIncremental(), "moving one charge should update incrementally");
+        charges.set(1, 300, 260, -2f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertTrue(gradient.isLastUpdateIncremental(), "re-valuing one charge should update incrementally");
+        charges.add(250, 100, 3f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertTrue(gradient.isLastUpdateIncremental(), "adding one charge should update incrementally");
+
+        VoltageGradient full = new VoltageGradient(new SimulationModel(pap, null));
+        full.updateVoltageGradient(charges, evaluator);
+        assertFalse(full.isLastUpdateIncremental(), "the first update is always a full recompute");
+
+        for (int row = 0; row < 57; row += 3) {
+            for (int col = 0; col < 46; col += 3) {
+                float expected = full.getVoltage(col, row);
+                assertEquals(expected, gradient.getVoltage(col, row), Math.abs(expected) * 1e-4f + 1f,
+                        "voltage of cell (" + col + ", " + row + ")");
+                assertEquals(full.getColor(col, row), gradient.getColor(col, row),
+                        "colour of cell (" + col + ", " + row + ")");
+            }
+        }
+    }
+
+    @Test
+    void testMovingSeveralChargesRecomputesFully() {
+        charges.set(0, 180, 150, 5f);
+        charges.set(1, 200, 300, -5f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertFalse(gradient.isLastUpdateIncremental(), "two moved charges should trigger a full recompute");
+    }
+
+    @Test
+    void testPeriodicFullRecompute() {
+        int interval = ConfigManager.getInstance().getVoltageFullRecomputeInterval();
+        for (int i = 0; i < interval; i++) {
+            charges.set(0, 121 + i % 50, 200, 5f);
+            gradient.updateVoltageGradient(charges, evaluator);
+            assertTrue(gradient.isLastUpdateIncremental(), "update " + i + " should be incremental");
+        }
+        charges.set(0, 100, 100, 5f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertFalse(gradient.isLastUpdateIncremental(), "the interval should force a full recompute");
+    }
+
+    @Test
+    void testOnlyTilesWhoseColourChangedAreUploaded() {
+        assertTrue(gradient.getUploadedTileCount() > 0, "the first update should upload the coloured tiles");
+
+        // a charge this weak stays under the tile tolerance everywhere, so no colour can change
+        charges.add(20, 20, 1e-9f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertEquals(0, gradient.getUploadedTileCount(), "no colour changed, so nothing should be uploaded");
+
+        charges.set(0, 60, 60, 5f);
+        gradient.updateVoltageGradient(charges, evaluator);
+        assertTrue(gradient.getUploadedTileCount() > 0, "moving a strong charge should upload its tiles");
+        assertTrue(gradient.getUploadedTileCount() <= gradient.getTileCount(), "at most every tile is uploaded");
+        testPixelsTakeTheirCellColour();
+    }
+
+    @Test
+    void testDistantTilesKeepExactVoltages() {
+        ChargeStore weak = new ChargeStore();
+        weak.add(10, 10, 1e-7f);
+        VoltageGradient local = new VoltageGradient(new SimulationModel(pap, null));
+        local.updateVoltageGradient(weak, evaluator);
+        int farColor = local.getColor(45, 56);
+
+        // small moves, none of which can change a distant tile's colour, still reach its voltages
+        for (int i = 1; i <= 20; i++) {
+            weak.set(0, 10 + i, 10, 1e-7f);
+            local.updateVoltageGradient(weak, evaluator);
+            assertTrue(local.isLastUpdateIncremental(), "moving one charge should update incrementally");
+        }
+        float expected = CommonMath.voltageAtPoint(45 * fidelity, 56 * fidelity, weak);
+        assertEquals(expected, local.getVoltage(45, 56), Math.abs(expected) * 1e-4f,
+                "a distant cell's voltage should follow the charge");
+        assertEquals(farColor, local.getColor(45, 56), "a distant cell's colour should not change");
+        float near = CommonMath.voltageAtPoint(fidelity, fidelity, weak);
+        assertEquals(near, local.getVoltage(1, 1), Math.abs(near) * 1e-4f, "the cell under the charge too");
+    }
+
+    @Test
+    void testDragShowsCoarsePreviewThenRefines() {
+        int factor = ConfigManager.getInstance().getVoltageCoarseFactor();
+        // two charges changing at once can't be applied incrementally
+        charges.set(0, 180, 150, 5f);
+        charges.set(1, 200, 300, -5f);
+        gradient.updateVoltageGradient(charges, evaluator, true);
+        assertFalse(gradient.isLastUpdateIncremental(), "two moved charges can't be applied incrementally");
+        assertTrue(gradient.isRefining(), "a drag should start from a coarse preview");
+
+        float sampled = CommonMath.voltageAtPoint(factor * fidelity, factor * fidelity, charges);
+        assertEquals(sampled, gradient.getVoltage(factor, factor), Math.abs(sampled) * 1e-5f,
+                "coarse samples should be exact");
+
+        int frames = 0;
+        while (gradient.isRefining() && frames < 1000) {
+            gradient.updateVoltageGradient(charges, evaluator, true);
+            frames++;
+        }
+        assertFalse(gradient.isRefining(), "refinement should finish once the charges stop moving");
+        testCellVoltagesMatchDirectSum();
+        testPixelsTakeTheirCellColour();
+    }
+
+    @Test
+    void testSingleChargeDragStaysIncremental() {
+        charges.set(0, 180, 150, 5f);
+        gradient.updateVoltageGradient(charges, evaluator, true);
+        assertTrue(gradient.isLastUpdateIncremental(), "dragging one charge should stay on the exact incremental path");
+        assertFalse(gradient.isRefining(), "an incremental update needs no refinement");
+    }
+}
@@ -1,8 +1,20 @@
 package org.example.config;
 
+import org.example.model.config.ConfigListener;
 import org.example.model.config.ConfigManager;
+import org.example.model.config.ConfigSnapshot;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ConfigManagerTest {
@@ -122,4 +134,274 @@ public class ConfigManagerTest {
         assertEquals(500.0f, cm.getFieldVectorScale(), 1e-6f,
                 "Field vector scale should be 500.0");
     }
+
+    @Test
+    void testFieldEvaluator() {
+        assertEquals("auto", cm.getFieldEvaluator(),
+                "Field evaluator should default to auto");
+    }
+
+    @Test
+    void testBarnesHutTheta() {
+        assertEquals(0.5f, cm.getBarnesHutTheta(), 1e-6f,
+                "Barnes-Hut opening angle should be 0.5");
+    }
+
+    @Test
+    void testBarnesHutThreshold() {
+        assertEquals(2000, cm.getBarnesHutThreshold(),
+                "Barnes-Hut threshold should be 2000");
+    }
+
+    @Test
+    void testFmmOrder() {
+        assertEquals(6, cm.getFmmOrder(),
+                "FMM expansion order should be 6");
+    }
+
+    @Test
+    void testFmmThreshold() {
+        assertEquals(50_000_000L, cm.getFmmThreshold(),
+                "FMM threshold should be 50,000,000 interactions");
+    }
+
+    @Test
+    void testVoltageFullRecomputeInterval() {
+        assertEquals(120, cm.getVoltageFullRecomputeInterval(),
+                "Voltage map should be fully recomputed every 120 incremental updates");
+    }
+
+    @Test
+    void testVoltageTileTolerance() {
+        assertEquals(1.0f, cm.getVoltageTileTolerance(), 1e-6f,
+                "Voltage tile tolerance should be 1 volt");
+    }
+
+    @Test
+    void testVoltageCoarseFactor() {
+        assertEquals(8, cm.getVoltageCoarseFactor(),
+                "Voltage preview should sample every 8th cell");
+    }
+
+    @Test
+    void testVoltageRefineBudget() {
+        assertEquals(20_000_000L, cm.getVoltageRefineBudget(),
+                "Voltage refinement budget should be 20,000,000 evaluations per frame");
+    }
+
+    @Test
+    void testFieldLinesParallelism() {
+        assertEquals(0, cm.getFieldLinesParallelism(),
+                "Field lines should be traced on the shared fork/join pool by default");
+    }
+
+    @Test
+    void testFieldLinesIntegrator() {
+        assertEquals("euler", cm.getFieldLinesIntegrator(), "Field lines should use fixed Euler steps by default");
+    }
+
+    @Test
+    void testFieldLinesTolerance() {
+        assertEquals(0.05f, cm.getFieldLinesTolerance(), 1e-6f, "Adaptive field line tolerance should be 0.05 px");
+    }
+
+    @Test
+    void testEquiLinesExtractor() {
+        assertEquals("trace", cm.getEquiLinesExtractor(), "Equipotentials should be traced from the click by default");
+    }
+
+    @Test
+    void testEquiLinesSpacing() {
+        assertEquals(50000f, cm.getEquiLinesSpacing(), 1e-6f, "Equipotential family spacing should be 50 kV");
+    }
+
+    @Test
+    void testEquiLinesFamilySize() {
+        assertEquals(10, cm.getEquiLinesFamilySize(), "Equipotential family should have 10 levels per sign");
+    }
+
+    @Test
+    void testTestChargesParallelism() {
+        assertEquals(0, cm.getTestChargesParallelism(),
+                "Test charges should be moved on the shared fork/join pool by default");
+    }
+
+    @Test
+    void testTestChargesIntegrator() {
+        assertEquals("euler", cm.getTestChargesIntegrator(), "Test charges should use semi-implicit Euler by default");
+    }
+
+    @Test
+    void testTestChargesTimestep() {
+        assertEquals(1f, cm.getTestChargesTimestep(), 1e-6f, "Test charges should advance one frame per step");
+    }
+
+    @Test
+    void testTestChargesSubstepping() {
+        assertEquals(1, cm.getTestChargesMaxSubsteps(), "Test-charge steps should not be split by default");
+        assertEquals(5f, cm.getTestChargesSubstepLength(), 1e-6f, "Sub-step length should be the test charge radius");
+    }
+
+    @Test
+    void testPhysicsClock() {
+        assertEquals(60f, cm.getPhysicsStepsPerSecond(), 1e-6f, "Physics should step at 60 Hz by default");
+        assertEquals(5, cm.getPhysicsMaxStepsPerFrame(), "A frame should catch up at most 5 physics steps");
+    }
+
+    @Test
+    void testSnapshotHoldsTheParsedSettings() {
+        ConfigSnapshot snapshot = cm.snapshot();
+        assertSame(snapshot, cm.snapshot(), "The snapshot should be reused until a setting changes");
+        assertEquals(cm.getCoulombsConstant(), snapshot.coulombsConstant, 1e-6f);
+        assertEquals(cm.getChargeRadius(), snapshot.chargeRadius, 1e-6f);
+        assertEquals((int) cm.getChargeDiameter(), snapshot.chargeDiameter);
+        assertEquals((long) cm.getFmmThreshold(), snapshot.fmmThreshold);
+        assertEquals((int) cm.getPositiveChargeColor(), snapshot.positiveChargeColor);
+        assertEquals(cm.getFieldEvaluator(), snapshot.fieldEvaluator);
+    }
+
+    @Test
+    void testSetPublishesANewSnapshot() {
+        ConfigSnapshot before = cm.snapshot();
+        try {
+            cm.set("grid.size", "30");
+            assertEquals(30f, cm.getGridSize(), 1e-6f);
+            assertEquals(30f, cm.snapshot().gridSize, 1e-6f);
+            assertEquals(before.version + 1, cm.getVersion(), "Each change should bump the version");
+            assertEquals(25f, before.gridSize, 1e-6f, "Snapshots taken earlier should not change");
+        } finally {
+            cm.set("grid.size", "25");
+        }
+    }
+
+    @Test
+    void testSetRejectsBadValuesAndUnknownKeys() {
+        long version = cm.getVersion();
+        assertThrows(IllegalArgumentException.class, () -> cm.set("grid.size", "wide"));
+        assertThrows(IllegalArgumentException.class, () -> cm.set("no.such.setting", "1"));
+        assertEquals(25f, cm.getGridSize(), 1e-6f, "A rejected value should leave the setting as it was");
+        assertEquals(version, cm.getVersion(), "A rejected value should not bump the version");
+    }
+
+    @Test
+    void testScopedOverrideIsUndoneOnClose() {
+        int width = cm.getSidePanelWidth();
+        float size = cm.getGridSize();
+        try (ConfigManager.Scope ignored = cm.override(Map.of("side.panel.width", "0", "grid.size", "40"))) {
+            assertEquals(0, cm.getSidePanelWidth());
+            assertEquals(40f, cm.getGridSize(), 1e-6f);
+        }
+        assertEquals(width, cm.getSidePanelWidth(), "A key without an override should fall back again");
+        assertEquals(size, cm.getGridSize(), 1e-6f, "An earlier override should come back");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cm.override(Map.of("side.panel.width", "0", "side.panel.padding", "wide")));
+        assertEquals(width, cm.getSidePanelWidth(), "A rejected override should change nothing");
+    }
+
+    @Test
+    void testFileOverridesDefaultsAndNotifiesListeners() throws IOException {
+        Path dir = Files.createTempDirectory("efield-config");
+        Path file = dir.resolve("efield.properties");
+        Files.writeString(file, "equi.lines.limit = 100\nfield.lines.per.coulomb=4\nno.such.setting=1\n");
+        Path original = cm.getFile();
+        List<Set<String>> changes = new ArrayList<>();
+        ConfigListener listener = (previous, current, keys) -> changes.add(keys);
+        cm.addListener(listener);
+        try {
+            cm.setFile(file);
+            assertEquals(100, cm.getEquiLinesLimit(), "The file should override the default");
+            assertEquals(100, cm.snapshot().equiLinesLimit);
+            assertEquals(List.of(Set.of("equi.lines.limit")), changes,
+                    "Listeners should hear about the keys whose values changed, and only those");
+
+            System.setProperty("efield.equi.lines.limit", "200");
+            cm.reload();
+            assertEquals(200, cm.getEquiLinesLimit(), "System properties should override the file");
+        } finally {
+            System.clearProperty("efield.equi.lines.limit");
+            cm.setFile(original);
+            cm.removeListener(listener);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+        assertEquals(4500, cm.getEquiLinesLimit(), "Dropping the file should restore the default");
+    }
+
+    @Test
+    void testBadFileKeepsCurrentSettings() throws IOException {
+        Path dir = Files.createTempDirectory("efield-config");
+        Path file = dir.resolve("efield.properties");
+        Files.writeString(file, "equi.lines.accuracy=fine\n");
+        Path original = cm.getFile();
+        long version = cm.getVersion();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> cm.setFile(file));
+            assertEquals(0.125f, cm.getEquiLinesAccuracy(), 1e-6f);
+            assertEquals(version, cm.getVersion());
+            assertEquals(original, cm.getFile(), "A rejected file should not replace the current one");
+        } finally {
+            cm.setFile(original);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void testWatchedFileIsReloadedWhenItChanges() throws Exception {
+        Path dir = Files.createTempDirectory("efield-config");
+        Path file = dir.resolve("efield.properties");
+        Files.writeString(file, "field.vector.scale=500\n");
+        Path original = cm.getFile();
+        CountDownLatch reloaded = new CountDownLatch(1);
+        ConfigListener listener = (previous, current, keys) -> {
+            if (keys.contains("field.vector.scale")) reloaded.countDown();
+        };
+        try {
+            cm.setFile(file);
+            cm.addListener(listener);
+            cm.startWatching();
+            Files.writeString(file, "field.vector.scale=250\n");
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS), "Editing the file should reload it");
+            assertEquals(250f, cm.getFieldVectorScale(), 1e-6f);
+        } finally {
+            cm.stopWatching();
+            cm.removeListener(listener);
+            cm.setFile(original);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void testRejectedFileKeepsTheWatcherRunning() throws Exception {
+        Path dir = Files.createTempDirectory("efield-config");
+        Path good = dir.resolve("efield.properties");
+        Path bad = dir.resolve("broken.properties");
+        Files.writeString(good, "field.vector.scale=500\n");
+        Files.writeString(bad, "equi.lines.accuracy=fine\n");
+        Path original = cm.getFile();
+        CountDownLatch reloaded = new CountDownLatch(1);
+        ConfigListener listener = (previous, current, keys) -> {
+            if (keys.contains("field.vector.scale")) reloaded.countDown();
+        };
+        try {
+            cm.setFile(good);
+            cm.startWatching();
+            assertThrows(IllegalArgumentException.class, () -> cm.setFile(bad));
+            assertEquals(good, cm.getFile());
+
+            cm.addListener(listener);
+            Files.writeString(good, "field.vector.scale=250\n");
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS), "The previous file should still be watched");
+            assertEquals(250f, cm.getFieldVectorScale(), 1e-6f);
+        } finally {
+            cm.stopWatching();
+            cm.removeListener(listener);
+            cm.setFile(original);
+            Files.deleteIfExists(good);
+            Files.deleteIfExists(bad);
+            Files.deleteIfExists(dir);
+        }
+    }
 }
@@ -68,6 +68,20 @@ public class InputControllerTest {
         assertEquals(102f, pc.getPosition().y, 1e-6f, "Y position should update to mouseY");
     }
 
+    @Test
+    void testHandleMouseReleased_EndsChargeDrag() {
+        sim.addPointCharge(new PVector(100, 100));
+        pap.mouseX = 105;
+        pap.mouseY = 102;
+        sim.update();
+
+        inputController.handleMouseDragged();
+        assertTrue(sim.isChargeDragInProgress(), "Dragging a charge should start a drag");
+
+        inputController.handleMouseReleased();
+        assertFalse(sim.isChargeDragInProgress(), "Releasing the mouse should end the drag");
+    }
+
     @Test
     void testHandleKeyPressed_IncreaseDecreaseAndDelete() {
         PVector pos = new PVector(150, 200);
@@ -132,4 +146,28 @@ public class InputControllerTest {
         assertEquals(70f, tc.getPosition().x, 1e-6f);
         assertEquals(80f, tc.getPosition().y, 1e-6f);
     }
+
+    @Test
+    void testHandleKeyPressed_DrawsEquipotentialFamily() throws Exception {
+        Field mode = ControlPanel.class.getDeclaredField("showEquipotentialLines");
+        mode.setAccessible(true);
+        mode.set(controlPanel, true);
+        Field lines = SimulationModel.class.getDeclaredField("equiLines");
+        lines.setAccessible(true);
+        sim.addPointCharge(new PVector(200, 240), 5f);
+        sim.addPointCharge(new PVector(400, 240), -5f);
+
+        pap.key = 'f';
+        inputController.handleKeyPressed();
+        int family = ((List<?>) lines.get(sim)).size();
+        assertTrue(family > 0, "F should draw the equipotential family");
+
+        inputController.handleKeyPressed();
+        assertEquals(family, ((List<?>) lines.get(sim)).size(), "Pressing F again should replace the family, not add to it");
+
+        mode.set(controlPanel, false);
+        sim.clearEquipotentialLines();
+        inputController.handleKeyPressed();
+        assertTrue(((List<?>) lines.get(sim)).isEmpty(), "F does nothing outside equipotential mode");
+    }
 }
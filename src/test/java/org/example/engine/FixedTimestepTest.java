@@ -0,0 +1,54 @@
+package org.example.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedTimestepTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testStepsFollowElapsedTimeNotFrames() {
+        // 100 steps per second, i.e. one every 10 ms
+        FixedTimestep fast = new FixedTimestep(100, 10);
+        FixedTimestep slow = new FixedTimestep(100, 10);
+        assertEquals(0, fast.advance(0), "The first frame only starts the clock");
+        slow.advance(0);
+
+        int fastSteps = 0, slowSteps = 0;
+        for (long t = 4 * MS; t <= 1000 * MS; t += 4 * MS) {
+            fastSteps += fast.advance(t);
+        }
+        for (long t = 50 * MS; t <= 1000 * MS; t += 50 * MS) {
+            slowSteps += slow.advance(t);
+        }
+        assertEquals(100, fastSteps, "250 frames over one second should run 100 steps");
+        assertEquals(100, slowSteps, "20 frames over one second should run 100 steps too");
+    }
+
+    @Test
+    void testLeftoverTimeCarriesOverAsAlpha() {
+        FixedTimestep clock = new FixedTimestep(100, 10);
+        clock.advance(0);
+        assertEquals(2, clock.advance(25 * MS));
+        assertEquals(0.5f, clock.alpha(), 1e-6f);
+        assertEquals(1, clock.advance(30 * MS), "The carried 5 ms plus 5 ms more make a step");
+        assertEquals(0f, clock.alpha(), 1e-6f);
+    }
+
+    @Test
+    void testLongFramesCatchUpOnlySoFar() {
+        FixedTimestep clock = new FixedTimestep(100, 3);
+        clock.advance(0);
+        assertEquals(3, clock.advance(500 * MS), "A stalled frame should run at most three steps");
+        assertEquals(0f, clock.alpha(), 1e-6f, "The rest of the backlog should be dropped");
+        assertEquals(1, clock.advance(510 * MS), "Afterwards steps follow the clock again");
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(60, 0));
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.engine.modes;
 
+import org.example.model.FieldLine;
+import org.example.model.FieldLineBuilder;
 import org.example.model.SimulationModel;
 import org.example.view.ui.ControlPanel;
 import org.example.factories.ProcessingFieldElementFactory;
@@ -110,4 +112,50 @@ public class FieldLineModeTest {
         assertEquals(before.size(), after.size(),
                 "Display should not modify the field lines list when disabled");
     }
+
+    @Test
+    void testFieldLinesAreCachedUntilChargesChange() throws Exception {
+        controlPanel.toggleFieldLines(true);
+        sim.addPointCharge(new PVector(250, 250), 1f);
+        mode.update();
+        List<?> first = (List<?>) fieldLinesField.get(sim);
+
+        sim.update();
+        mode.update();
+        assertSame(first, fieldLinesField.get(sim), "Unchanged charges should reuse the traced field lines");
+
+        sim.getPointCharges().get(0).setPosition(new PVector(300, 250));
+        mode.update();
+        assertNotSame(first, fieldLinesField.get(sim), "Moving a charge should re-trace the field lines");
+        assertEquals(first.size(), ((List<?>) fieldLinesField.get(sim)).size(),
+                "Re-traced lines should have the same count");
+    }
+
+    @Test
+    void testParallelTracingKeepsSeedOrder() throws Exception {
+        controlPanel.toggleFieldLines(true);
+        sim.addPointCharge(new PVector(200, 240), 3f);
+        sim.addPointCharge(new PVector(440, 240), 2f);
+        sim.addPointCharge(new PVector(320, 100), -4f);
+        mode.update();
+        List<?> lines = (List<?>) fieldLinesField.get(sim);
+
+        int perCoulomb = cm.getFieldLinesPerCoulomb();
+        assertEquals(5 * perCoulomb, lines.size(), "Every seed of every positive charge should be traced");
+        for (int i = 0; i < lines.size(); i++) {
+            FieldLine line = (FieldLine) lines.get(i);
+            PVector expectedCentre = i < 3 * perCoulomb ? new PVector(200, 240) : new PVector(440, 240);
+            assertEquals(cm.getChargeRadius(), PVector.dist(expectedCentre, line.getStartingPoint()), 1e-3f,
+                    "Line " + i + " should start on the charge it was seeded from");
+
+            FieldLine sequential = new FieldLineBuilder(pap, line.getStartingPoint(), sim.getChargeStore())
+                    .withEvaluator(sim.getFieldEvaluator()).build();
+            assertEquals(sequential.getPoints().size(), line.getPoints().size(),
+                    "Line " + i + " should match tracing the same seed on one thread");
+            for (int p = 0; p < line.getPoints().size(); p++) {
+                assertEquals(sequential.getPoints().get(p).x, line.getPoints().get(p).x, 0f, "Line " + i + " point " + p);
+                assertEquals(sequential.getPoints().get(p).y, line.getPoints().get(p).y, 0f, "Line " + i + " point " + p);
+            }
+        }
+    }
 }
@@ -127,4 +127,21 @@ public class FieldVectorModeTest {
         assertEquals(before.size(), after.size(),
                 "Display should not modify the field vectors list when disabled");
     }
+
+    @Test
+    void testFieldVectorsAreCachedUntilChargesChange() throws Exception {
+        Field showFieldVectorsField = ControlPanel.class.getDeclaredField("showFieldVectors");
+        showFieldVectorsField.setAccessible(true);
+        showFieldVectorsField.setBoolean(controlPanel, true);
+        sim.addPointCharge(new PVector(200, 200), 1f);
+        mode.update();
+        Object first = fieldVectorsField.get(sim);
+
+        mode.update();
+        assertSame(first, fieldVectorsField.get(sim), "Unchanged charges should reuse the field-vector grid");
+
+        sim.getPointCharges().get(0).setPosition(new PVector(260, 200));
+        mode.update();
+        assertNotSame(first, fieldVectorsField.get(sim), "Moving a charge should recompute the field vectors");
+    }
 }
@@ -21,6 +21,8 @@ public class TestChargeModeTest {
     static class TestableSim extends SimulationModel {
         boolean moved = false;
         boolean displayed = false;
+        int moves = 0;
+        int physicsSteps = 1;
 
         public TestableSim(PApplet pap, ControlPanel cp) {
             super(pap, cp);
@@ -29,6 +31,12 @@ public class TestChargeModeTest {
         @Override
         public void moveTestCharges() {
             moved = true;
+            moves++;
+        }
+
+        @Override
+        public int getPhysicsSteps() {
+            return physicsSteps;
         }
 
         @Override
@@ -100,4 +108,19 @@ public class TestChargeModeTest {
         mode.display(pap);
         assertTrue(sim.displayed, "displayTestCharges should be called when enabled");
     }
+
+    @Test
+    void testUpdateRunsEveryPhysicsStepDue() throws Exception {
+        Field f = ControlPanel.class.getDeclaredField("testChargeMode");
+        f.setAccessible(true);
+        f.setBoolean(controlPanel, true);
+
+        sim.physicsSteps = 3;
+        mode.update();
+        assertEquals(3, sim.moves, "Each physics step due this frame should move the test charges once");
+
+        sim.physicsSteps = 0;
+        mode.update();
+        assertEquals(3, sim.moves, "A frame with no step due should not move them");
+    }
 }
@@ -0,0 +1,105 @@
+package org.example.field;
+
+import org.example.model.ChargeStore;
+import org.example.model.CommonMath;
+import org.example.model.field.BarnesHutEvaluator;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarnesHutEvaluatorTest {
+
+    private final FieldEvaluator scalar = new ScalarFieldEvaluator();
+    private ChargeStore charges;
+    private ChargeStore magnitudes;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(3);
+        charges = new ChargeStore();
+        magnitudes = new ChargeStore();
+        for (int i = 0; i < 5000; i++) {
+            float x = random.nextFloat() * 1600, y = random.nextFloat() * 900;
+            float q = random.nextBoolean() ? 5f : -5f;
+            charges.add(x, y, q);
+            magnitudes.add(x, y, Math.abs(q));
+        }
+    }
+
+    @Test
+    void testZeroThetaIsExact() {
+        BarnesHutEvaluator exact = new BarnesHutEvaluator(0f);
+        Random random = new Random(5);
+        float[] expected = new float[2];
+        float[] actual = new float[2];
+        for (int i = 0; i < 50; i++) {
+            float x = random.nextFloat() * 1600, y = random.nextFloat() * 900;
+            float scale = scalar.voltageAt(magnitudes, x, y);
+            assertEquals(scalar.voltageAt(charges, x, y), exact.voltageAt(charges, x, y), 1e-4f * scale,
+                    "theta = 0 should open every cell");
+
+            scalar.forceAt(charges, x, y, expected);
+            exact.forceAt(charges, x, y, actual);
+            float forceScale = Math.abs(expected[CommonMath.FORCE_X]) + Math.abs(expected[CommonMath.FORCE_Y]) + 1f;
+            assertEquals(expected[CommonMath.FORCE_X], actual[CommonMath.FORCE_X], 1e-3f * forceScale, "force x");
+            assertEquals(expected[CommonMath.FORCE_Y], actual[CommonMath.FORCE_Y], 1e-3f * forceScale, "force y");
+        }
+    }
+
+    @Test
+    void testApproximationStaysCloseToExactSum() {
+        BarnesHutEvaluator approximate = new BarnesHutEvaluator(0.5f);
+        Random random = new Random(9);
+        for (int i = 0; i < 200; i++) {
+            float x = random.nextFloat() * 1600, y = random.nextFloat() * 900;
+            float scale = scalar.voltageAt(magnitudes, x, y);
+            assertEquals(scalar.voltageAt(charges, x, y), approximate.voltageAt(charges, x, y), 1e-2f * scale,
+                    "voltage at (" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    void testTreeIsRebuiltWhenChargesMove() {
+        ChargeStore single = new ChargeStore();
+        single.add(100, 100, 5f);
+        BarnesHutEvaluator evaluator = new BarnesHutEvaluator(0.5f);
+        float before = evaluator.voltageAt(single, 200, 100);
+
+        single.set(0, 150, 100, 5f);
+        float after = evaluator.voltageAt(single, 200, 100);
+
+        assertEquals(before * 2f, after, 1f, "halving the distance should double the voltage");
+    }
+
+    @Test
+    void testCopiesShareTheTree() throws Exception {
+        BarnesHutEvaluator evaluator = new BarnesHutEvaluator(0.5f);
+        Field tree = BarnesHutEvaluator.class.getDeclaredField("tree");
+        tree.setAccessible(true);
+
+        evaluator.voltageAt(charges, 800, 450);
+        Object built = tree.get(evaluator);
+        // what the worker and the equipotential tracer query, alternating with the live store
+        evaluator.voltageAt(charges.copy(), 800, 450);
+        evaluator.voltageAt(charges, 800, 450);
+        assertSame(built, tree.get(evaluator), "A copy with the same version should reuse the tree");
+
+        evaluator.voltageAt(magnitudes, 800, 450);
+        assertNotSame(built, tree.get(evaluator), "Another store's charges need their own tree");
+    }
+
+    @Test
+    void testEmptyStore() {
+        BarnesHutEvaluator evaluator = new BarnesHutEvaluator(0.5f);
+        float[] out = new float[2];
+        evaluator.forceAt(new ChargeStore(), 10, 10, out);
+        assertEquals(0f, out[CommonMath.FORCE_X], 0f, "no charges, no force");
+        assertEquals(0f, evaluator.voltageAt(new ChargeStore(), 10, 10), 0f, "no charges, no voltage");
+    }
+}
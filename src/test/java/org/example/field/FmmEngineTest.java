@@ -0,0 +1,92 @@
+package org.example.field;
+
+import org.example.model.ChargeStore;
+import org.example.model.CommonMath;
+import org.example.model.field.FmmEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FmmEngineTest {
+
+    private static ChargeStore randomCharges(int n, long seed) {
+        Random random = new Random(seed);
+        ChargeStore store = new ChargeStore(n);
+        for (int i = 0; i < n; i++) {
+            store.add(random.nextFloat() * 800f, random.nextFloat() * 600f, random.nextBoolean() ? 1f : -1f);
+        }
+        return store;
+    }
+
+    private static float[] randomCoordinates(int m, float extent, long seed) {
+        Random random = new Random(seed);
+        float[] values = new float[m];
+        for (int i = 0; i < m; i++) {
+            values[i] = random.nextFloat() * extent;
+        }
+        return values;
+    }
+
+    @Test
+    void testMatchesDirectSum() {
+        ChargeStore store = randomCharges(3000, 7);
+        int m = 500;
+        float[] tx = randomCoordinates(m, 800f, 11);
+        float[] ty = randomCoordinates(m, 600f, 13);
+        float[] voltage = new float[m], fx = new float[m], fy = new float[m];
+
+        new FmmEngine(6).evaluate(store, tx, ty, m, voltage, fx, fy);
+
+        ChargeStore magnitudes = new ChargeStore(store.size());
+        for (int i = 0; i < store.size(); i++) {
+            magnitudes.add(store.getXs()[i], store.getYs()[i], Math.abs(store.getQs()[i]));
+        }
+
+        float[] exact = new float[2];
+        for (int t = 0; t < m; t++) {
+            float voltageScale = CommonMath.voltageAtPoint(tx[t], ty[t], magnitudes);
+            float forceScale = voltageScale / 100f;
+            assertEquals(CommonMath.voltageAtPoint(tx[t], ty[t], store), voltage[t], 1e-4f * voltageScale, "voltage at target " + t);
+
+            CommonMath.forceAtPoint(tx[t], ty[t], store, exact);
+            assertEquals(exact[CommonMath.FORCE_X], fx[t], 1e-3f * forceScale, "force x at target " + t);
+            assertEquals(exact[CommonMath.FORCE_Y], fy[t], 1e-3f * forceScale, "force y at target " + t);
+        }
+    }
+
+    @Test
+    void testHigherOrderIsMoreAccurate() {
+        ChargeStore store = randomCharges(2000, 3);
+        int m = 200;
+        float[] tx = randomCoordinates(m, 800f, 5);
+        float[] ty = randomCoordinates(m, 600f, 9);
+        float[] low = new float[m], high = new float[m];
+
+        new FmmEngine(2).evaluate(store, tx, ty, m, low, null, null);
+        new FmmEngine(8).evaluate(store, tx, ty, m, high, null, null);
+
+        double lowError = 0, highError = 0;
+        for (int t = 0; t < m; t++) {
+            float v = CommonMath.voltageAtPoint(tx[t], ty[t], store);
+            lowError += Math.abs(low[t] - v);
+            highError += Math.abs(high[t] - v);
+        }
+        assertTrue(highError < lowError, "order 8 should beat order 2");
+    }
+
+    @Test
+    void testNoSources() {
+        float[] voltage = {1f, 1f};
+        float[] fx = {1f, 1f};
+        new FmmEngine(4).evaluate(new ChargeStore(), new float[]{0f, 10f}, new float[]{0f, 10f}, 2, voltage, fx, null);
+        assertArrayEquals(new float[]{0f, 0f}, voltage, 0f);
+        assertArrayEquals(new float[]{0f, 0f}, fx, 0f);
+    }
+
+    @Test
+    void testRejectsZeroOrder() {
+        assertThrows(IllegalArgumentException.class, () -> new FmmEngine(0));
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.field;
+
+import org.example.model.ChargeStore;
+import org.example.model.CommonMath;
+import org.example.model.field.FieldEvaluator;
+import org.example.model.field.FieldEvaluators;
+import org.example.model.field.ScalarFieldEvaluator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VectorFieldEvaluatorTest {
+
+    private static final float REL_TOL = 1e-4f;
+
+    private final FieldEvaluator scalar = new ScalarFieldEvaluator();
+    private FieldEvaluator vector;
+    private ChargeStore charges;
+    private ChargeStore magnitudes;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(FieldEvaluators.isVectorApiAvailable(), "jdk.incubator.vector is not available");
+        vector = FieldEvaluators.create(FieldEvaluators.VECTOR);
+
+        // an odd count so the scalar tail after the SIMD loop is exercised too
+        Random random = new Random(42);
+        charges = new ChargeStore();
+        magnitudes = new ChargeStore();
+        for (int i = 0; i < 1003; i++) {
+            float x = random.nextFloat() * 1600, y = random.nextFloat() * 900;
+            float q = random.nextBoolean() ? 5f : -5f;
+            charges.add(x, y, q);
+            magnitudes.add(x, y, Math.abs(q));
+        }
+    }
+
+    @Test
+    void testCreateReturnsVectorBackend() {
+        assertFalse(vector instanceof ScalarFieldEvaluator, "vector backend should be selected when available");
+    }
+
+    @Test
+    void testVoltageMatchesScalar() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            float x = random.nextFloat() * 1600, y = random.nextFloat() * 900;
+            // tolerance relative to the sum of |contributions| so cancellation doesn't blow it up
+            float scale = scalar.voltageAt(magnitudes, x, y);
+            assertEquals(scalar.voltageAt(charges, x, y), vector.voltageAt(charges, x, y), REL_TOL * scale,
+                    "voltage at (" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    void testForceMatchesScalar() {
+        Random random = new Random(11);
+        float[] expected = new float[2];
+        float[] actual = new float[2];
+        for (int i = 0; i < 200; i++) {
+            float x = random.nextFloat() * 1600, y = random.nextFloat() * 900;
+            scalar.forceAt(charges, x, y, expected);
+            vector.forceAt(charges, x, y, actual);
+            float scale = forceScale(x, y);
+            assertEquals(expected[CommonMath.FORCE_X], actual[CommonMath.FORCE_X], REL_TOL * scale, "force x at (" + x + ", " + y + ")");
+            assertEquals(expected[CommonMath.FORCE_Y], actual[CommonMath.FORCE_Y], REL_TOL * scale, "force y at (" + x + ", " + y + ")");
+        }
+    }
+
+    @Test
+    void testPointOnTopOfChargeIsFinite() {
+        float[] out = new float[2];
+        float x = charges.getXs()[3], y = charges.getYs()[3];
+        vector.forceAt(charges, x, y, out);
+        assertTrue(Float.isFinite(out[CommonMath.FORCE_X]) && Float.isFinite(out[CommonMath.FORCE_Y]),
+                "the charge under the point should be skipped, not produce NaN");
+        assertTrue(Float.isFinite(vector.voltageAt(charges, x, y)), "voltage should be clamped, not infinite");
+    }
+
+    // sum of |K q / r^2| over all charges
+    private float forceScale(float x, float y) {
+        float scale = 0f;
+        for (int i = 0; i < magnitudes.size(); i++) {
+            float dx = magnitudes.getXs()[i] - x, dy = magnitudes.getYs()[i] - y;
+            float r2 = Math.max(dx * dx + dy * dy, CommonMath.MIN_DISTANCE * CommonMath.MIN_DISTANCE);
+            scale += 8990000f * magnitudes.getQs()[i] / r2;
+        }
+        return scale;
+    }
+}
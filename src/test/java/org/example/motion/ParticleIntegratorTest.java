@@ -0,0 +1,82 @@
+package org.example.motion;
+
+import org.example.model.motion.ParticleIntegrator;
+import org.example.model.motion.ParticleIntegrators;
+import org.example.model.motion.RungeKutta4Integrator;
+import org.example.model.motion.SemiImplicitEulerIntegrator;
+import org.example.model.motion.VelocityVerletIntegrator;
+import org.junit.jupiter.api.Test;
+
+import static org.example.model.motion.ParticleIntegrator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParticleIntegratorTest {
+
+    // force = (x, y), so with q = 1 the particle is a unit harmonic oscillator, period 2 pi
+    private static final ParticleIntegrator.ForceField SPRING = (x, y, out) -> {
+        out[0] = x;
+        out[1] = y;
+    };
+
+    // state after running the oscillator from (1, 0) at rest for the given number of steps
+    private static float[] oscillate(ParticleIntegrator integrator, float dt, int steps) {
+        float[] state = {1f, 0f, 0f, 0f};
+        float[] force = new float[2];
+        boolean known = false;
+        for (int i = 0; i < steps; i++) {
+            if (!known) SPRING.forceAt(state[X], state[Y], force);
+            known = integrator.step(state, 1f, force, dt, SPRING);
+        }
+        return state;
+    }
+
+    private static float energy(float[] state) {
+        return 0.5f * (state[VX] * state[VX] + state[VY] * state[VY] + state[X] * state[X] + state[Y] * state[Y]);
+    }
+
+    @Test
+    void testEulerMatchesTheOriginalUpdateAtUnitTimestep() {
+        float[] state = {10f, 20f, 1f, -2f};
+        float[] force = {3f, -4f};
+        new SemiImplicitEulerIntegrator().step(state, 0.5f, force, 1f, SPRING);
+
+        // a = -q * force, v += a, x += v
+        assertEquals(-0.5f, state[VX], 1e-6f);
+        assertEquals(0f, state[VY], 1e-6f);
+        assertEquals(9.5f, state[X], 1e-6f);
+        assertEquals(20f, state[Y], 1e-6f);
+    }
+
+    @Test
+    void testVerletConservesEnergyAndHandsOnTheForce() {
+        ParticleIntegrator verlet = new VelocityVerletIntegrator();
+        float[] state = oscillate(verlet, 0.1f, 2000);
+        assertEquals(0.5f, energy(state), 0.005f, "Verlet energy should stay within 1% over ~30 periods");
+
+        float[] force = {1f, 0f};
+        float[] one = {1f, 0f, 0f, 0f};
+        assertTrue(verlet.step(one, 1f, force, 0.1f, SPRING), "Verlet should report the force at the new position");
+        assertEquals(one[X], force[0], 1e-6f);
+        assertEquals(one[Y], force[1], 1e-6f);
+    }
+
+    @Test
+    void testRk4IsAccurateOverAPeriod() {
+        int steps = 63;
+        float[] state = oscillate(new RungeKutta4Integrator(), (float) (2 * Math.PI / steps), steps);
+        assertEquals(1f, state[X], 1e-3f);
+        assertEquals(0f, state[Y], 1e-3f);
+        assertEquals(0f, state[VX], 1e-3f);
+
+        float[] euler = oscillate(new SemiImplicitEulerIntegrator(), (float) (2 * Math.PI / steps), steps);
+        assertTrue(Math.abs(euler[X] - 1f) > Math.abs(state[X] - 1f), "RK4 should beat Euler at the same step size");
+    }
+
+    @Test
+    void testIntegratorsByName() {
+        assertTrue(ParticleIntegrators.create(ParticleIntegrators.EULER) instanceof SemiImplicitEulerIntegrator);
+        assertTrue(ParticleIntegrators.create(ParticleIntegrators.VERLET) instanceof VelocityVerletIntegrator);
+        assertTrue(ParticleIntegrators.create(ParticleIntegrators.RK4) instanceof RungeKutta4Integrator);
+        assertThrows(IllegalArgumentException.class, () -> ParticleIntegrators.create("leapfrog-ish"));
+    }
+}